@@ -0,0 +1,41 @@
+package com.lastlight.project;
+
+import java.io.File;
+
+/**
+ * Writes a reproducible stress-test level and times loading it back.
+ * Usage: ./gradlew core:benchmark -Pbench=LevelExport --args="out.llvl 128 42"
+ * (file, facility size in chunks, seed). A size of 0 writes a classic 20x20 map.
+ * Play it with --level=out.llvl.
+ */
+public class LevelExport {
+
+    public static void main(String[] args) {
+        File file = new File(args.length > 0 ? args[0] : "stress.llvl");
+        int chunks = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        ChunkSource source = chunks > 0
+            ? new ProceduralChunkSource(chunks, chunks, seed, Math.max(3, chunks), 5, 5)
+            : new GridChunkSource(new MapGenerator(20, 20, 4, 3, 5, 5).generate(seed));
+
+        long start = System.nanoTime();
+        LevelFile.write(source, seed, file);
+        System.out.printf("wrote %s: %dx%d tiles, %d KB in %.1f ms%n", file, source.getWidth(), source.getHeight(),
+            file.length() / 1024, (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        LevelFile level = LevelFile.open(file);
+        System.out.printf("open: %.2f ms (%d generators)%n", (System.nanoTime() - start) / 1e6, level.getGeneratorCount());
+
+        int chunksX = (level.getWidth() + ChunkedWorld.CHUNK_SIZE - 1) / ChunkedWorld.CHUNK_SIZE;
+        int chunksY = (level.getHeight() + ChunkedWorld.CHUNK_SIZE - 1) / ChunkedWorld.CHUNK_SIZE;
+        start = System.nanoTime();
+        for (int cy = 0; cy < chunksY; cy++) {
+            for (int cx = 0; cx < chunksX; cx++) level.loadChunk(cx, cy);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("load all %d chunks: %.1f ms (%.1f us per chunk)%n", chunksX * chunksY,
+            elapsed / 1e6, elapsed / 1e3 / (chunksX * chunksY));
+    }
+}
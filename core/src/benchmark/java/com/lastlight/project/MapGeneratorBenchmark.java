@@ -0,0 +1,67 @@
+package com.lastlight.project;
+
+/**
+ * Generation time for square maps from 20x20 up to 4096x4096.
+ * Object counts scale with map area (3 generators / 5 items / 5 traps per
+ * 20x20), and a final "dense" run asks for more objects than there are
+ * free tiles to show that placement still terminates.
+ */
+public class MapGeneratorBenchmark {
+
+    private static final int[] SIZES = {20, 64, 256, 512, 1024, 2048, 4096};
+
+    public static void main(String[] args) {
+        // Warm up the JIT on mid-sized maps
+        for (int i = 0; i < 20; i++) {
+            create(256, 1f).generate(i);
+        }
+
+        System.out.println("size        runs   avg ms     min ms");
+        for (int size : SIZES) {
+            MapGenerator generator = create(size, 1f);
+            int runs = size <= 512 ? 20 : size <= 2048 ? 5 : 3;
+
+            long total = 0;
+            long min = Long.MAX_VALUE;
+            for (int r = 0; r < runs; r++) {
+                long start = System.nanoTime();
+                generator.generate(r);
+                long elapsed = System.nanoTime() - start;
+                total += elapsed;
+                min = Math.min(min, elapsed);
+            }
+
+            System.out.printf("%-11s %4d %8.2f %10.2f%n",
+                size + "x" + size, runs, total / (double) runs / 1e6, min / 1e6);
+        }
+
+        // Far more objects than free floor: must still finish
+        MapGenerator dense = create(1024, 1000f);
+        long start = System.nanoTime();
+        dense.generate(42);
+        System.out.printf("dense 1024x1024 (x1000 objects): %.2f ms%n", (System.nanoTime() - start) / 1e6);
+
+        // Same seed, same map
+        TileGrid a = create(512, 1f).generate(7);
+        TileGrid b = create(512, 1f).generate(7);
+        System.out.println("seed 7 reproducible: " + sameLayout(a, b));
+    }
+
+    private static MapGenerator create(int size, float density) {
+        float scale = size * size / 400f * density;
+        return new MapGenerator(size, size, 4,
+            Math.max(3, (int) (3 * scale)),
+            Math.max(5, (int) (5 * scale)),
+            Math.max(5, (int) (5 * scale)));
+    }
+
+    private static boolean sameLayout(TileGrid a, TileGrid b) {
+        for (int ty = 0; ty < a.getHeight(); ty++) {
+            for (int tx = 0; tx < a.getWidth(); tx++) {
+                if (a.getTile(tx, ty) != b.getTile(tx, ty)) return false;
+                if (a.getMarker(tx, ty) != b.getMarker(tx, ty)) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Query latency of HierarchicalPathfinder on generated maps from 512x512 to
+ * 2048x2048, against a breadth-first search over the whole grid.
+ *
+ * For each size: time to build the graph, latency of uncached queries between
+ * random floor tiles, of routes asked for again and answered from the cache, of
+ * expanding the waypoints into tiles, and of repairing the graph after a door
+ * opens. The grid search gives the optimal length, so the table also shows
+ * how much longer the hierarchical paths are. The last column is the share
+ * of all queries the path cache answered; the first queries, and those
+ * whose route was evicted since, miss.
+ */
+public class PathfindingBenchmark {
+
+    private static final int[] SIZES = {512, 1024, 2048};
+    private static final int QUERIES = 400;
+    private static final int BASELINE_QUERIES = 20;
+    private static final int REPAIRS = 200;
+    // Routes asked for again, fewer than the pathfinder caches
+    private static final int REPEATED = 200;
+
+    public static void main(String[] args) {
+        // Warm up the JIT on a smaller map
+        run(256, QUERIES, false);
+
+        System.out.println("size         nodes  build ms  query us (p50/p99)  cached us  refine us  repair us  grid bfs us  found  longer  cache hits");
+        for (int size : SIZES) run(size, QUERIES, true);
+    }
+
+    private static void run(int size, int queries, boolean print) {
+        float scale = size * size / 400f;
+        TileGrid map = new MapGenerator(size, size, 4, (int) (3 * scale), 0, 0).generate(size);
+        Random random = new Random(size);
+        int[] starts = randomFloor(map, random, queries);
+        int[] goals = randomFloor(map, random, queries);
+
+        long start = System.nanoTime();
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(map, size, size);
+        long build = System.nanoTime() - start;
+
+        IntArray waypoints = new IntArray();
+        IntArray tiles = new IntArray();
+        long[] query = new long[queries];
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            waypoints.clear();
+            start = System.nanoTime();
+            if (pathfinder.findPath(starts[i] % size, starts[i] / size, goals[i] % size, goals[i] / size, waypoints)) found++;
+            query[i] = System.nanoTime() - start;
+        }
+
+        // The latest routes are still cached
+        long cached = 0;
+        for (int i = queries - REPEATED; i < queries; i++) {
+            waypoints.clear();
+            start = System.nanoTime();
+            pathfinder.findPath(starts[i] % size, starts[i] / size, goals[i] % size, goals[i] / size, waypoints);
+            cached += System.nanoTime() - start;
+        }
+
+        long refine = 0;
+        for (int i = 0; i < queries; i++) {
+            waypoints.clear();
+            if (!pathfinder.findPath(starts[i] % size, starts[i] / size, goals[i] % size, goals[i] / size, waypoints)) continue;
+            tiles.clear();
+            start = System.nanoTime();
+            pathfinder.refine(waypoints, tiles);
+            refine += System.nanoTime() - start;
+        }
+
+        // Exact lengths for a few pairs, against the expanded hierarchical paths
+        long baseline = 0;
+        int compared = 0;
+        double longer = 0;
+        int[] distance = new int[size * size];
+        int[] queue = new int[size * size];
+        for (int i = 0; i < BASELINE_QUERIES; i++) {
+            start = System.nanoTime();
+            int exact = gridDistance(map, starts[i], goals[i], distance, queue);
+            baseline += System.nanoTime() - start;
+            waypoints.clear();
+            if (exact <= 0 || !pathfinder.findPath(starts[i] % size, starts[i] / size, goals[i] % size, goals[i] / size, waypoints)) continue;
+            tiles.clear();
+            pathfinder.refine(waypoints, tiles);
+            longer += (tiles.size / 2 - 1) / (double) exact - 1;
+            compared++;
+        }
+
+        // A door opening: a free tile is closed, then opened again and repaired
+        long repair = 0;
+        int[] doors = randomFloor(map, random, REPAIRS);
+        for (int i = 0; i < REPAIRS; i++) {
+            int tx = doors[i] % size, ty = doors[i] / size;
+            map.setObstacle(tx, ty, true);
+            pathfinder.tileChanged(tx, ty);
+            map.setObstacle(tx, ty, false);
+            start = System.nanoTime();
+            pathfinder.tileChanged(tx, ty);
+            repair += System.nanoTime() - start;
+        }
+
+        if (!print) return;
+        Arrays.sort(query);
+        int lookups = pathfinder.getCacheHits() + pathfinder.getCacheMisses();
+        System.out.printf("%-11s %6d %9.1f %9.1f / %-8.1f %9.1f %10.1f %10.1f %12.1f %5.0f%% %6.1f%% %10.1f%%%n",
+            size + "x" + size, pathfinder.getNodeCount(), build / 1e6,
+            query[queries / 2] / 1e3, query[queries * 99 / 100] / 1e3,
+            cached / 1e3 / REPEATED, refine / 1e3 / Math.max(1, found), repair / 1e3 / REPAIRS,
+            baseline / 1e3 / BASELINE_QUERIES, found * 100f / queries,
+            compared > 0 ? longer * 100 / compared : 0,
+            lookups > 0 ? pathfinder.getCacheHits() * 100f / lookups : 0f);
+    }
+
+    private static int[] randomFloor(TileGrid map, Random random, int count) {
+        int[] tiles = new int[count];
+        for (int i = 0; i < count; ) {
+            int tx = random.nextInt(map.getWidth()), ty = random.nextInt(map.getHeight());
+            if (map.isSolid(tx, ty)) continue;
+            tiles[i++] = ty * map.getWidth() + tx;
+        }
+        return tiles;
+    }
+
+    // Steps between two tiles by a 4-connected search over the whole grid, -1 if cut off
+    private static int gridDistance(TileGrid map, int from, int to, int[] distance, int[] queue) {
+        int width = map.getWidth(), height = map.getHeight();
+        Arrays.fill(distance, -1);
+        int head = 0, tail = 0;
+        distance[from] = 0;
+        queue[tail++] = from;
+        while (head < tail) {
+            int i = queue[head++];
+            if (i == to) return distance[i];
+            int x = i % width, y = i / width;
+            for (int n = 0; n < 4; n++) {
+                int nx = x + (n == 0 ? 1 : n == 1 ? -1 : 0), ny = y + (n == 2 ? 1 : n == 3 ? -1 : 0);
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                int ni = ny * width + nx;
+                if (distance[ni] >= 0 || map.isSolid(nx, ny)) continue;
+                distance[ni] = distance[i] + 1;
+                queue[tail++] = ni;
+            }
+        }
+        return -1;
+    }
+}
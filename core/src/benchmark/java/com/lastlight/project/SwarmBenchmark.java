@@ -0,0 +1,119 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Throughput of DroneSwarm for 1 to N threads: swarms of 16k and 64k drones
+ * on a generated 256x256 map, around a player they chase within range and
+ * wander elsewhere, for a minute of game time.
+ *
+ * Every thread count replays the same swarm, so the final positions and the
+ * traps laid and the steps a drone touched the player on must match the
+ * single-threaded run exactly; the last column checks that. The trap merge
+ * is timed on its own, as it stays serial.
+ */
+public class SwarmBenchmark {
+
+    private static final float TILE = 64f;
+    private static final float STEP = 1f / 120f;
+    private static final int SIZE = 256;
+    private static final int[] DRONES = {16384, 65536};
+    private static final int WARMUP_STEPS = 600;
+    private static final int STEPS = 7200; // 60 s of game time, every drone lays traps
+
+    private final TileGrid map = new MapGenerator(SIZE, SIZE, 4, 3 * SIZE * SIZE / 400, 0, 0).generate(SIZE);
+    private final DroneNavigation navigation = new DroneNavigation(TILE);
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = threadCounts(cores);
+        SwarmBenchmark bench = new SwarmBenchmark();
+
+        // Warm up the JIT on both paths, serial and forked
+        bench.run(4096, 1, WARMUP_STEPS);
+        bench.run(4096, 2, WARMUP_STEPS);
+
+        System.out.printf("%d cores, %d steps of %.1f ms%n", cores, STEPS, STEP * 1000);
+        System.out.println("drones  threads  ms/step  M drone-steps/s  speedup  merge us/step  traps  same as 1 thread");
+        for (int drones : DRONES) {
+            Result serial = null;
+            for (int threads : threadCounts) {
+                Result r = bench.run(drones, threads, STEPS);
+                if (serial == null) serial = r;
+                System.out.printf("%6d %8d %8.3f %16.1f %8.2f %14.1f %6d  %s%n",
+                    drones, threads, r.stepNanos / 1e6 / STEPS, (double) drones * STEPS / r.stepNanos * 1e3,
+                    (double) serial.stepNanos / r.stepNanos, r.mergeNanos / 1e3 / STEPS, r.traps,
+                    r.sameAs(serial) ? "yes" : "NO");
+            }
+        }
+    }
+
+    private static final class Result {
+        long stepNanos, mergeNanos;
+        int traps, caught;
+        float[] x, y;
+
+        boolean sameAs(Result other) {
+            return traps == other.traps && caught == other.caught && Arrays.equals(x, other.x) && Arrays.equals(y, other.y);
+        }
+    }
+
+    // 1, 2, 4 ... up to the core count, and at least up to 8 to show oversubscription
+    private static int[] threadCounts(int cores) {
+        int max = Math.max(cores, 8);
+        int n = 0;
+        int[] counts = new int[32];
+        for (int t = 1; t < max; t *= 2) counts[n++] = t;
+        counts[n++] = max;
+        if (cores < max) counts[n++] = cores;
+        counts = Arrays.copyOf(counts, n);
+        Arrays.sort(counts);
+        // Duplicates when the core count is a power of two
+        int unique = 0;
+        for (int i = 0; i < counts.length; i++) if (unique == 0 || counts[unique - 1] != counts[i]) counts[unique++] = counts[i];
+        return Arrays.copyOf(counts, unique);
+    }
+
+    private Result run(int drones, int threads, int steps) {
+        PooledEngine engine = new PooledEngine(64, 4096, 64, 4096);
+        EntityFactory factory = new EntityFactory(engine, TILE, null);
+        DroneSwarm swarm = new DroneSwarm(map, navigation, TILE, EntityFactory.DRONE_SIZE * TILE, threads);
+
+        // Same tiles and seeds for every run
+        Random random = new Random(drones);
+        int player = randomFloor(random);
+        while (swarm.getCount() < drones) {
+            int tile = randomFloor(random);
+            swarm.add(tile % SIZE * TILE, tile / SIZE * TILE, swarm.getCount());
+        }
+        navigation.invalidate();
+        navigation.update(map, (player % SIZE + 0.5f) * TILE, (player / SIZE + 0.5f) * TILE, new SpatialHash<Entity>(128f));
+        swarm.setPlayer(player % SIZE * TILE, player / SIZE * TILE, TILE * 0.8f, TILE * 0.8f);
+
+        Result result = new Result();
+        for (int i = 0; i < steps; i++) {
+            long start = System.nanoTime();
+            swarm.step(STEP);
+            long stepped = System.nanoTime();
+            result.traps += swarm.layTraps(factory);
+            if (swarm.isTouchingPlayer()) result.caught++;
+            result.mergeNanos += System.nanoTime() - stepped;
+            result.stepNanos += stepped - start;
+        }
+        result.x = Arrays.copyOf(swarm.x, swarm.getCount());
+        result.y = Arrays.copyOf(swarm.y, swarm.getCount());
+        swarm.dispose();
+        return result;
+    }
+
+    private int randomFloor(Random random) {
+        while (true) {
+            int tx = random.nextInt(SIZE), ty = random.nextInt(SIZE);
+            if (!map.isSolid(tx, ty)) return ty * SIZE + tx;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.backends.headless.mock.audio.MockSound;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+import com.badlogic.gdx.utils.FloatArray;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Allocation budget of the simulation tick. Steps the same Simulation as
+ * Main.updateGame over a generated map with every kind of entity: the
+ * player, drones and swarm drones laying traps, generators, exits and
+ * items. The swarm is stepped on at least two threads, so the fork/join
+ * path runs, and the bytes its workers allocate count too. Drones beyond
+ * the flow fields' window plan routes on the level's graph. It plays
+ * through sound voices that accept every clip, and reads the bytes the
+ * thread allocated around every tick from ThreadMXBean. The listener does
+ * the map and navigation work Main's does for an opened door.
+ *
+ * Scripted input takes the player on a tour: next to every generator, then
+ * to every exit and onto every item. At each stop it holds F, then walks and
+ * sprints, presses an item key, and works the flashlight throughout. So
+ * every tick the gate measures repairs generators, opens doors, picks up
+ * and uses items, and plays sounds as the game does.
+ *
+ * Warm-up passes fill the engine's pools and the broadphase cells. Then the
+ * level is respawned with the same seeds, so every measured pass replays the
+ * same workload, and it must allocate nothing. Exits with status 1 when a
+ * tick goes over the budget, or when the tour missed a kind of event, so it
+ * can gate a build like a test; the tickAllocation Gradle task runs it as
+ * part of check.
+ */
+public class TickAllocationBenchmark {
+
+    private static final float TILE = 64f;
+    private static final float STEP = 1f / 120f;
+    private static final int STOP_TICKS = 720; // 6 s at each stop of the tour
+    private static final int HOLD_F_FROM = 10, HOLD_F_UNTIL = 660; // long enough to repair a generator
+    private static final int ITEM_KEY_TICK = 700;
+    private static final float REACH = 16f; // how far the player leans towards a generator or door
+    private static final long BUDGET_BYTES = 0;
+    private static final int WARMUP_PASSES = 2;
+    private static final int DRONE_SPACING = 40; // one drone per this many free tiles
+    // One swarm drone per this many free tiles; their traps must still fit the engine's pools
+    private static final int SWARM_SPACING = 10;
+
+    /** Holds F at each stop, then walks and sprints; presses an item key and works the light. */
+    private static final class ScriptedInput extends MockInput {
+        int tick;
+
+        @Override
+        public boolean isKeyPressed(int key) {
+            int phase = tick % STOP_TICKS;
+            boolean walking = phase >= HOLD_F_UNTIL;
+            int side = (tick / STOP_TICKS) % 4;
+            switch (key) {
+                case Input.Keys.W: return walking && side == 0;
+                case Input.Keys.D: return walking && side == 1;
+                case Input.Keys.S: return walking && side == 2;
+                case Input.Keys.A: return walking && side == 3;
+                case Input.Keys.SHIFT_LEFT: return walking && side % 2 == 1;
+                case Input.Keys.F: return phase >= HOLD_F_FROM && phase < HOLD_F_UNTIL;
+                default: return false;
+            }
+        }
+
+        @Override
+        public boolean isKeyJustPressed(int key) {
+            if (tick % STOP_TICKS != ITEM_KEY_TICK) return false;
+            return key == Input.Keys.NUM_1 + (tick / STOP_TICKS) % 3;
+        }
+
+        @Override
+        public boolean isButtonPressed(int button) {
+            return button == Input.Buttons.LEFT && tick % 300 < 150;
+        }
+    }
+
+    private final TileGrid map = new MapGenerator(96, 96, 4, 8, 6, 6).generate(7);
+    private final Sound silent = new MockSound();
+    private final AudioService audio = new AudioService(clip -> silent, TILE * 12f, TILE * 8f);
+    private int generatorsCompleted, doorsOpened, itemsPicked;
+    private final Simulation simulation = new Simulation(map, TILE, null, audio, new Simulation.Listener() {
+        @Override
+        public void generatorCompleted(Entity generator) {
+            generatorsCompleted++;
+        }
+
+        @Override
+        public void doorOpened(Entity door) {
+            // As Main: the door's cell is free again, so the graph and the fields are repaired
+            TransformComponent t = Mappers.transform.get(door);
+            int tx = (int) (t.position.x / TILE), ty = (int) (t.position.y / TILE);
+            map.setObstacle(tx, ty, false);
+            simulation.navigation.tileChanged(tx, ty);
+            doorsOpened++;
+        }
+
+        @Override
+        public void playerCaught() {
+        }
+
+        @Override
+        public void playerEscaped() {
+        }
+
+        @Override
+        public void itemPicked(ItemType type) {
+            itemsPicked++;
+        }
+    });
+    private final ImmutableArray<Entity> drones = simulation.engine.getEntitiesFor(Family.all(DroneComponent.class).get());
+    private final ImmutableArray<Entity> traps = simulation.engine.getEntitiesFor(Family.all(TrapComponent.class).get());
+    private TransformComponent player;
+    private int generatorCount;
+    // Where the player is put at each stop, x and y in world units
+    private final FloatArray tour = new FloatArray();
+
+    public static void main(String[] args) {
+        ScriptedInput input = new ScriptedInput();
+        Gdx.input = input;
+        TickAllocationBenchmark bench = new TickAllocationBenchmark();
+        bench.planTour();
+        bench.simulation.swarm.setThreads(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        int ticks = bench.tour.size / 2 * STOP_TICKS;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // Warm-up: the JIT keeps recompiling well into the first pass
+        for (int pass = 0; pass < WARMUP_PASSES; pass++) {
+            bench.respawn();
+            bench.run(input, ticks, null, null, null, 0);
+        }
+
+        // The swarm's workers started during the warm-up and stay busy every tick
+        long[] measured = bench.measuredThreads(thread);
+
+        // What reading the counter costs by itself, subtracted from every tick. The
+        // counter allocates once on its own while it is being compiled, so read it
+        // often enough here for that to happen before the measurement
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 100000; i++) {
+            long a = allocatedBytes(threads, measured);
+            overhead = Math.min(overhead, allocatedBytes(threads, measured) - a);
+        }
+
+        // Two measured passes over the same replay. Allocation in the code repeats at
+        // the same tick; a deoptimisation that rematerialises eliminated objects only
+        // shows up once, so only ticks over budget in both passes fail
+        long[] first = new long[ticks], second = new long[ticks];
+        bench.respawn();
+        long start = System.nanoTime();
+        bench.run(input, ticks, threads, measured, first, overhead);
+        long elapsed = System.nanoTime() - start;
+        int laid = bench.traps.size();
+        int generators = bench.generatorsCompleted, doors = bench.doorsOpened, items = bench.itemsPicked;
+        bench.respawn();
+        bench.run(input, ticks, threads, measured, second, overhead);
+
+        long total = 0, worst = 0;
+        int overBudget = 0, oneOff = 0;
+        for (int i = 0; i < ticks; i++) {
+            total += Math.max(0, first[i]);
+            worst = Math.max(worst, Math.min(first[i], second[i]));
+            if (first[i] > BUDGET_BYTES && second[i] > BUDGET_BYTES) overBudget++;
+            else if (first[i] > BUDGET_BYTES || second[i] > BUDGET_BYTES) oneOff++;
+        }
+
+        System.out.printf("%d ticks, %d drones, %d swarm drones on %d threads, %d traps%n", ticks, bench.drones.size(),
+            bench.simulation.swarm.getCount(), bench.simulation.swarm.getThreads(), laid);
+        System.out.printf("%d/%d generators repaired, %d doors opened, %d items picked%n",
+            generators, bench.generatorCount, doors, items);
+        System.out.printf("avg %.2f us/tick | allocated %d bytes in the first pass, worst repeated tick %d bytes%n",
+            elapsed / 1e3 / ticks, total, worst);
+        System.out.printf("%d ticks over the %d byte budget in both passes, %d in one pass only (JIT)%n",
+            overBudget, BUDGET_BYTES, oneOff);
+        if (generators == 0 || doors == 0 || items == 0) {
+            System.out.println("The tour no longer reaches every kind of entity; the gate would not cover them");
+            System.exit(1);
+        }
+        if (overBudget > 0) System.exit(1);
+    }
+
+    // One pass over the tour; with a counter, the bytes each tick allocated on the
+    // measured threads go to allocated[]
+    private void run(ScriptedInput input, int ticks, com.sun.management.ThreadMXBean threads, long[] measured,
+                     long[] allocated, long overhead) {
+        for (int i = 0; i < ticks; i++) {
+            input.tick = i;
+            if (threads == null) {
+                tick(i);
+                continue;
+            }
+            long before = allocatedBytes(threads, measured);
+            tick(i);
+            allocated[i] = allocatedBytes(threads, measured) - before - overhead;
+        }
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads, long[] ids) {
+        long bytes = 0;
+        for (int i = 0; i < ids.length; i++) bytes += threads.getThreadAllocatedBytes(ids[i]);
+        return bytes;
+    }
+
+    // This thread and the swarm's fork/join workers
+    private long[] measuredThreads(long thread) {
+        long[] ids = new long[1 + simulation.swarm.getThreads()];
+        int n = 0;
+        ids[n++] = thread;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t instanceof ForkJoinWorkerThread && n < ids.length) ids[n++] = t.getId();
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    private void tick(int i) {
+        if (i % STOP_TICKS == 0) {
+            int stop = i / STOP_TICKS;
+            player.position.set(tour.get(stop * 2), tour.get(stop * 2 + 1));
+            player.previousPosition.set(player.position);
+        }
+        // Main polls once per frame; here every step is a frame
+        simulation.players.pollInput();
+        simulation.step(STEP);
+    }
+
+    // Next to every generator, then every exit, then onto every item
+    private void planTour() {
+        float size = TILE * 0.4f; // the player's box, see EntityFactory.player
+        for (byte kind : new byte[] {TileGrid.GENERATOR, TileGrid.EXIT, TileGrid.ITEM}) {
+            for (int ty = 0; ty < map.getHeight(); ty++) {
+                for (int tx = 0; tx < map.getWidth(); tx++) {
+                    if (map.getMarker(tx, ty) != kind) continue;
+                    if (kind == TileGrid.ITEM) {
+                        tour.add(tx * TILE + (TILE - size) / 2f, ty * TILE + (TILE - size) / 2f);
+                        continue;
+                    }
+                    // A free side, leaning in so the centres are within a tile
+                    for (int n = 0; n < 4; n++) {
+                        int dx = n == 0 ? 1 : n == 1 ? -1 : 0, dy = n == 2 ? 1 : n == 3 ? -1 : 0;
+                        int nx = tx + dx, ny = ty + dy;
+                        if (nx < 0 || ny < 0 || nx >= map.getWidth() || ny >= map.getHeight()) continue;
+                        if (map.getTile(nx, ny) != TileGrid.FLOOR) continue;
+                        tour.add(nx * TILE + (TILE - size) / 2f - dx * REACH, ny * TILE + (TILE - size) / 2f - dy * REACH);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // The level from its markers again; parts come back out of the warm pools
+    private void respawn() {
+        simulation.clear();
+        generatorsCompleted = doorsOpened = itemsPicked = 0;
+        generatorCount = 0;
+        for (int ty = 0; ty < map.getHeight(); ty++) {
+            for (int tx = 0; tx < map.getWidth(); tx++) {
+                float x = tx * TILE, y = ty * TILE;
+                switch (map.getMarker(tx, ty)) {
+                    case TileGrid.PLAYER:
+                        player = Mappers.transform.get(simulation.factory.player(x, y));
+                        break;
+                    case TileGrid.GENERATOR:
+                        simulation.factory.generator(x, y);
+                        map.setObstacle(tx, ty, true);
+                        generatorCount++;
+                        break;
+                    case TileGrid.EXIT:
+                        simulation.factory.door(x, y);
+                        map.setObstacle(tx, ty, true);
+                        break;
+                    case TileGrid.ITEM:
+                        simulation.factory.item(x, y, ItemType.values()[(tx + ty) % ItemType.values().length]);
+                        break;
+                    case TileGrid.TRAP:
+                        simulation.factory.trap(x, y);
+                        break;
+                }
+            }
+        }
+        simulation.objectives.reset(generatorCount);
+        simulation.navigation.reset(map);
+
+        // The generator places a single drone; spread drones and swarm drones over the floor instead
+        int freeTiles = 0, seed = 0;
+        for (int ty = 0; ty < map.getHeight(); ty++) {
+            for (int tx = 0; tx < map.getWidth(); tx++) {
+                if (!map.isFree(tx, ty)) continue;
+                if (freeTiles % DRONE_SPACING == 0) simulation.factory.drone(tx * TILE, ty * TILE, seed);
+                else if (freeTiles % SWARM_SPACING == 0) simulation.swarm.add(tx * TILE, ty * TILE, seed);
+                freeTiles++;
+                seed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Every sound effect of the game, loaded once by {@link GameAssets} and
+ * played through a fixed set of voices.
+ *
+ * Each clip may only hold a few voices at a time, and all clips share
+ * {@link #MAX_VOICES}. When a clip is at its cap its oldest voice is cut;
+ * when every voice is busy the new sound takes the oldest voice of the lowest
+ * priority, or is dropped if everything playing matters more. Positional
+ * sounds fade and pan with their distance from the listener and are not
+ * played at all beyond hearing range, so a crowd of drones costs nothing
+ * until the player is near. Clips that have not finished loading are
+ * silently skipped.
+ *
+ * Clips are read from audio/NAME.wav, which the convertAudio Gradle task
+ * decodes from the MP3 sources, and fall back to NAME.mp3 when it is missing.
+ */
+public class AudioService {
+
+    /** Where the clips come from: GameAssets in the game, silent stand-ins in the benchmarks. */
+    public interface SoundSource {
+        /** The clip's sound, or null while it is not loaded. */
+        Sound getSound(Clip clip);
+    }
+
+    public enum Clip {
+        LIGHT_ON("light_on", 1.04f, 1, PRIORITY_LOW),
+        LIGHT_OFF("light_off", 1.19f, 1, PRIORITY_LOW),
+        BEEP("beep", 0.35f, 2, PRIORITY_NORMAL),
+        PICK("pick", 0.92f, 2, PRIORITY_NORMAL),
+        SHIELD("shield", 1.46f, 1, PRIORITY_NORMAL),
+        SODA("soda", 3.77f, 1, PRIORITY_NORMAL),
+        BATTERY("battery", 1.46f, 1, PRIORITY_NORMAL),
+        DOOR_OPEN("door_open", 1.54f, 2, PRIORITY_HIGH),
+        GENERATOR_FIX("generator_fix", 2.62f, 1, PRIORITY_HIGH),
+        VICTORY("victory", 2.90f, 1, PRIORITY_CRITICAL),
+        DEFEAT("defeat", 3.63f, 1, PRIORITY_CRITICAL);
+
+        final String file;
+        /** How long a voice of this clip counts as busy, in seconds. */
+        final float length;
+        final int maxVoices;
+        final int priority;
+
+        Clip(String file, float length, int maxVoices, int priority) {
+            this.file = file;
+            this.length = length;
+            this.maxVoices = maxVoices;
+            this.priority = priority;
+        }
+    }
+
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
+    public static final int PRIORITY_CRITICAL = 3;
+
+    /** Voices across all clips; the desktop backend mixes 16 sources by default. */
+    public static final int MAX_VOICES = 16;
+
+    private static final Clip[] CLIPS = Clip.values();
+
+    private final SoundSource assets;
+    private final Sound[] sounds = new Sound[CLIPS.length]; // resolved on first play
+    private final float hearingRange;
+    private final float panRange;
+    private float listenerX, listenerY;
+    private float clock = 0f;
+
+    // Voice slots; a slot is free once clock passes its end time
+    private final Clip[] voiceClip = new Clip[MAX_VOICES];
+    private final long[] voiceId = new long[MAX_VOICES];
+    private final float[] voiceStart = new float[MAX_VOICES];
+    private final float[] voiceEnd = new float[MAX_VOICES];
+
+    /**
+     * @param hearingRange distance at which positional sounds fade to silence
+     * @param panRange horizontal distance at which they are fully on one side
+     */
+    public AudioService(SoundSource assets, float hearingRange, float panRange) {
+        this.assets = assets;
+        this.hearingRange = hearingRange;
+        this.panRange = panRange;
+    }
+
+    private Sound sound(Clip clip) {
+        Sound sound = sounds[clip.ordinal()];
+        if (sound == null) sound = sounds[clip.ordinal()] = assets.getSound(clip);
+        return sound;
+    }
+
+    /** Advances the clock that decides when voices are free again. */
+    public void update(float delta) {
+        clock += delta;
+    }
+
+    /** Where positional sounds are heard from, normally the player's centre. */
+    public void setListener(float x, float y) {
+        listenerX = x;
+        listenerY = y;
+    }
+
+    /** Plays a sound that is not tied to a place, e.g. UI and player feedback. */
+    public long play(Clip clip, float volume) {
+        return play(clip, volume, 1f);
+    }
+
+    public long play(Clip clip, float volume, float pitch) {
+        return start(clip, volume, pitch, 0f);
+    }
+
+    /**
+     * Plays a sound emitted at x, y. Returns -1 without using a voice when it
+     * is out of hearing range or every voice is taken by something more important.
+     */
+    public long playAt(Clip clip, float x, float y, float volume) {
+        float dx = x - listenerX, dy = y - listenerY;
+        float dist2 = dx * dx + dy * dy;
+        if (dist2 >= hearingRange * hearingRange) return -1;
+
+        float falloff = 1f - (float) Math.sqrt(dist2) / hearingRange;
+        float pan = MathUtils.clamp(dx / panRange, -1f, 1f);
+        return start(clip, volume * falloff * falloff, 1f, pan);
+    }
+
+    private long start(Clip clip, float volume, float pitch, float pan) {
+        Sound sound = sound(clip);
+        if (sound == null) return -1;
+        int slot = pickSlot(clip);
+        if (slot < 0) return -1;
+
+        if (voiceClip[slot] != null && voiceEnd[slot] > clock) sounds[voiceClip[slot].ordinal()].stop(voiceId[slot]);
+
+        long id = sound.play(volume, pitch, pan);
+        if (id == -1) {
+            voiceClip[slot] = null;
+            return -1;
+        }
+        voiceClip[slot] = clip;
+        voiceId[slot] = id;
+        voiceStart[slot] = clock;
+        voiceEnd[slot] = clock + clip.length / pitch;
+        return id;
+    }
+
+    /**
+     * The slot for a new voice of the clip: its own oldest voice when the clip
+     * is at its cap, else a free slot, else the oldest voice of the lowest
+     * priority that does not outrank the clip. -1 when there is none.
+     */
+    private int pickSlot(Clip clip) {
+        int playing = 0, oldestOwn = -1, free = -1, victim = -1;
+        for (int i = 0; i < MAX_VOICES; i++) {
+            Clip c = voiceClip[i];
+            if (c == null || voiceEnd[i] <= clock) {
+                if (free < 0) free = i;
+                continue;
+            }
+            if (c == clip) {
+                playing++;
+                if (oldestOwn < 0 || voiceStart[i] < voiceStart[oldestOwn]) oldestOwn = i;
+            }
+            if (c.priority <= clip.priority && (victim < 0 || c.priority < voiceClip[victim].priority
+                || (c.priority == voiceClip[victim].priority && voiceStart[i] < voiceStart[victim]))) {
+                victim = i;
+            }
+        }
+        if (playing >= clip.maxVoices) return oldestOwn;
+        return free >= 0 ? free : victim;
+    }
+
+    /** Stops every voice, e.g. when a level is left. */
+    public void stopAll() {
+        for (int i = 0; i < MAX_VOICES; i++) {
+            if (voiceClip[i] != null && voiceEnd[i] > clock) sounds[voiceClip[i].ordinal()].stop(voiceId[i]);
+            voiceClip[i] = null;
+        }
+    }
+
+    /** Voices still playing, for the F3 profiler log. */
+    public int getActiveVoices() {
+        int n = 0;
+        for (int i = 0; i < MAX_VOICES; i++) {
+            if (voiceClip[i] != null && voiceEnd[i] > clock) n++;
+        }
+        return n;
+    }
+
+    /** Stops what is playing; the sounds themselves belong to GameAssets. */
+    public void dispose() {
+        stopAll();
+    }
+}
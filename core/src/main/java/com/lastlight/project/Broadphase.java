@@ -0,0 +1,49 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.Family;
+
+/**
+ * One spatial hash per kind of entity, kept in step with the engine: an
+ * entity is inserted when it joins its kind's family (spawned, laid by a
+ * drone, or back from a suspended chunk) and removed when it leaves it.
+ * Only moving entities have to be updated by their system, see DroneSystem.
+ */
+public class Broadphase {
+
+    // Two tiles per cell
+    private static final float CELL_SIZE = 128f;
+
+    public final SpatialHash<Entity> drones = new SpatialHash<>(CELL_SIZE);
+    public final SpatialHash<Entity> traps = new SpatialHash<>(CELL_SIZE);
+    public final SpatialHash<Entity> generators = new SpatialHash<>(CELL_SIZE);
+    public final SpatialHash<Entity> doors = new SpatialHash<>(CELL_SIZE);
+    public final SpatialHash<Entity> items = new SpatialHash<>(CELL_SIZE);
+
+    public Broadphase(Engine engine) {
+        track(engine, DroneComponent.class, drones);
+        track(engine, TrapComponent.class, traps);
+        track(engine, GeneratorComponent.class, generators);
+        track(engine, DoorComponent.class, doors);
+        track(engine, ItemComponent.class, items);
+    }
+
+    private static void track(Engine engine, Class<? extends Component> kind, final SpatialHash<Entity> hash) {
+        Family family = Family.all(TransformComponent.class, kind).exclude(SuspendedComponent.class).get();
+        engine.addEntityListener(family, new EntityListener() {
+            @Override
+            public void entityAdded(Entity entity) {
+                TransformComponent t = Mappers.transform.get(entity);
+                hash.insert(entity, t.position.x, t.position.y, t.size, t.size);
+            }
+
+            @Override
+            public void entityRemoved(Entity entity) {
+                hash.remove(entity);
+            }
+        });
+    }
+}
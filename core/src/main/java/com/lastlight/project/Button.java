@@ -2,8 +2,8 @@ package com.lastlight.project;
 
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 public class Button {
     private float x, y, width, height;
@@ -11,6 +11,10 @@ public class Button {
     private Runnable action;
     private boolean hovered;
 
+    // Laid out once for the font it is first drawn with
+    private final GlyphLayout layout = new GlyphLayout();
+    private BitmapFont layoutFont;
+
     public Button(float x, float y, float width, float height, String text, Runnable action) {
         this.x = x;
         this.y = y;
@@ -20,19 +24,24 @@ public class Button {
         this.action = action;
     }
 
-    public void render(SpriteBatch batch, BitmapFont font) {
-        // Draw button background
-        batch.end();
-        ShapeRenderer sr = new ShapeRenderer();
-        sr.setProjectionMatrix(batch.getProjectionMatrix());
-        sr.begin(ShapeRenderer.ShapeType.Filled);
-        sr.setColor(hovered ? 0.2f : 0.1f, 0.2f, 0.5f, 1f);  // highlight on hover
-        sr.rect(x, y, width, height);
-        sr.end();
-        batch.begin();
+    /**
+     * Draws the background from a (white) atlas region tinted by the batch
+     * colour. Backgrounds and labels are drawn in separate loops by the menu so
+     * the batch only switches texture once between them.
+     */
+    public void renderBackground(SpriteBatch batch, TextureRegion region) {
+        float previous = batch.getPackedColor();
+        batch.setColor(hovered ? 0.2f : 0.1f, 0.2f, 0.5f, 1f);  // highlight on hover
+        batch.draw(region, x, y, width, height);
+        batch.setPackedColor(previous);
+    }
 
+    public void renderLabel(SpriteBatch batch, BitmapFont font) {
+        if (layoutFont != font) {
+            layout.setText(font, text);
+            layoutFont = font;
+        }
         // Draw button text centered
-        GlyphLayout layout = new GlyphLayout(font, text);
         float textX = x + (width - layout.width) / 2f;
         float textY = y + (height + layout.height) / 2f;
         font.draw(batch, layout, textX, textY);
@@ -0,0 +1,33 @@
+package com.lastlight.project;
+
+/** One resident CHUNK_SIZE x CHUNK_SIZE block of a ChunkedWorld. */
+public class Chunk {
+
+    public final int cx;
+    public final int cy;
+    public final int key;
+
+    // Tile coordinates of the bottom-left corner
+    public final int originX;
+    public final int originY;
+
+    public final TileGrid tiles;
+
+    // Level the chunk was loaded for; stale loads are dropped
+    final int epoch;
+
+    Chunk(int cx, int cy, int key, TileGrid tiles, int epoch) {
+        this.cx = cx;
+        this.cy = cy;
+        this.key = key;
+        this.originX = cx * ChunkedWorld.CHUNK_SIZE;
+        this.originY = cy * ChunkedWorld.CHUNK_SIZE;
+        this.tiles = tiles;
+        this.epoch = epoch;
+    }
+
+    public boolean contains(int tx, int ty) {
+        return tx >= originX && tx < originX + tiles.getWidth() &&
+            ty >= originY && ty < originY + tiles.getHeight();
+    }
+}
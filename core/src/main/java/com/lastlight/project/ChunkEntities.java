@@ -0,0 +1,41 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Entities parked while their chunk is evicted. They keep all of their state
+ * (generator progress, laid traps, collected items) and stay in the engine,
+ * but carry a SuspendedComponent, which every family excludes, until the
+ * chunk is loaded again. Swarm drones in the chunk are taken out of the
+ * swarm for as long.
+ */
+class ChunkEntities {
+
+    final Array<Entity> entities = new Array<>();
+    private DroneSwarm.Parked swarmDrones;
+
+    /** Suspends every entity and swarm drone whose position lies in the world rectangle. */
+    void suspend(float x, float y, float w, float h, ImmutableArray<Entity> active, PooledEngine engine, DroneSwarm swarm) {
+        // Collected first: suspending changes the family being iterated
+        for (int i = 0; i < active.size(); i++) {
+            Entity e = active.get(i);
+            TransformComponent t = Mappers.transform.get(e);
+            if (t.position.x >= x && t.position.x < x + w && t.position.y >= y && t.position.y < y + h) entities.add(e);
+        }
+        for (int i = 0; i < entities.size; i++) entities.get(i).add(engine.createComponent(SuspendedComponent.class));
+        swarmDrones = swarm.park(x, y, w, h);
+    }
+
+    void resume(DroneSwarm swarm) {
+        for (int i = 0; i < entities.size; i++) entities.get(i).remove(SuspendedComponent.class);
+        if (swarmDrones != null) swarm.resume(swarmDrones);
+        swarmDrones = null;
+    }
+
+    boolean isEmpty() {
+        return entities.size == 0 && swarmDrones == null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.GridPoint2;
+
+/**
+ * Supplies the tiles of a ChunkedWorld one chunk at a time.
+ * loadChunk() runs on the chunk loader thread, so implementations must be
+ * thread-safe and must not touch GL state.
+ */
+public interface ChunkSource {
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Tiles and markers of chunk (cx, cy). Chunks on the right / top edge may
+     * be smaller than {@link ChunkedWorld#CHUNK_SIZE}.
+     */
+    TileGrid loadChunk(int cx, int cy);
+
+    /** Tile the player starts on. */
+    GridPoint2 getSpawnTile();
+
+    /** Generators in the whole level, loaded or not. */
+    int getGeneratorCount();
+
+    /**
+     * Seed of chunk (cx, cy), set on its TileGrid, from the level's seed. Every
+     * source uses it, so a level rolls the same items and swarms whichever
+     * source serves it, e.g. after LevelFile saved it.
+     */
+    static long chunkSeed(long levelSeed, int cx, int cy) {
+        long h = levelSeed + cx * 0x9E3779B97F4A7C15L + cy * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,137 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Static wall / floor geometry, built once per chunk when it is loaded and
+ * kept on the GPU in a SpriteCache until the chunk is evicted. Each frame
+ * only the chunks overlapping the view are drawn, so the vertices submitted
+ * depend on the viewport, not on the level size.
+ *
+ * SpriteCaches are pooled, so streaming chunks in and out does not create
+ * GL objects once the pool has grown to the resident chunk count. They all
+ * draw with one shader, compiled once, instead of one default shader each.
+ */
+public class ChunkTileCache {
+
+    private static final int TILES_PER_CHUNK = ChunkedWorld.CHUNK_SIZE * ChunkedWorld.CHUNK_SIZE;
+
+    // SpriteCache's default shader, which it does not expose
+    private static final String VERTEX =
+        "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+        "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+        "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+        "uniform mat4 u_projectionViewMatrix;\n" +
+        "varying vec4 v_color;\n" +
+        "varying vec2 v_texCoords;\n" +
+        "void main() {\n" +
+        "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n" +
+        "    v_color.a = v_color.a * (255.0/254.0);\n" +
+        "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+        "    gl_Position = u_projectionViewMatrix * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+        "}\n";
+
+    private static final String FRAGMENT =
+        "#ifdef GL_ES\n" +
+        "precision mediump float;\n" +
+        "#endif\n" +
+        "varying vec4 v_color;\n" +
+        "varying vec2 v_texCoords;\n" +
+        "uniform sampler2D u_texture;\n" +
+        "void main() {\n" +
+        "    gl_FragColor = v_color * texture2D(u_texture, v_texCoords);\n" +
+        "}\n";
+
+    /** SpriteCache.dispose disposes its shader, so the caches' calls do nothing and {@link #release} frees it once. */
+    private static final class SharedShader extends ShaderProgram {
+        SharedShader() {
+            super(VERTEX, FRAGMENT);
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        void release() {
+            super.dispose();
+        }
+    }
+
+    private final TextureRegion wall, floor;
+    private final float tileSize;
+    private final SharedShader shader;
+
+    private final IntMap<SpriteCache> caches = new IntMap<>();
+    private final Array<SpriteCache> free = new Array<>();
+
+    public ChunkTileCache(TextureRegion wall, TextureRegion floor, float tileSize) {
+        this.wall = wall;
+        this.floor = floor;
+        this.tileSize = tileSize;
+        shader = new SharedShader();
+        if (!shader.isCompiled()) throw new GdxRuntimeException("Couldn't compile tile cache shader: " + shader.getLog());
+    }
+
+    public void build(Chunk chunk) {
+        release(chunk);
+
+        SpriteCache cache = free.size > 0 ? free.pop() : new SpriteCache(TILES_PER_CHUNK, shader, true);
+        cache.clear();
+        cache.beginCache();
+        // Grouped by region, so a chunk never switches texture per tile even without a shared atlas page
+        addTiles(cache, chunk, true);
+        addTiles(cache, chunk, false);
+        cache.endCache();
+        caches.put(chunk.key, cache);
+    }
+
+    private void addTiles(SpriteCache cache, Chunk chunk, boolean walls) {
+        TileGrid tiles = chunk.tiles;
+        TextureRegion region = walls ? wall : floor;
+        for (int ty = 0; ty < tiles.getHeight(); ty++) {
+            for (int tx = 0; tx < tiles.getWidth(); tx++) {
+                if (tiles.isWall(tx, ty) != walls) continue;
+                cache.add(region, (chunk.originX + tx) * tileSize, (chunk.originY + ty) * tileSize, tileSize, tileSize);
+            }
+        }
+    }
+
+    public void release(Chunk chunk) {
+        SpriteCache cache = caches.remove(chunk.key);
+        if (cache != null) free.add(cache);
+    }
+
+    /** Drops every chunk, e.g. when a new level starts. */
+    public void clear() {
+        for (SpriteCache cache : caches.values()) free.add(cache);
+        caches.clear();
+    }
+
+    /** Draws the cached chunks that overlap the visible tile range. */
+    public void render(Matrix4 projection, Iterable<Chunk> chunks, int minTx, int minTy, int maxTx, int maxTy) {
+        for (Chunk c : chunks) {
+            if (c.originX > maxTx || c.originX + c.tiles.getWidth() <= minTx ||
+                c.originY > maxTy || c.originY + c.tiles.getHeight() <= minTy) continue;
+
+            SpriteCache cache = caches.get(c.key);
+            if (cache == null) continue;
+            cache.setProjectionMatrix(projection);
+            cache.begin();
+            cache.draw(0);
+            cache.end();
+        }
+    }
+
+    public void dispose() {
+        clear();
+        for (SpriteCache cache : free) cache.dispose();
+        free.clear();
+        shader.release();
+    }
+}
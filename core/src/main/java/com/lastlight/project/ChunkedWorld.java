@@ -0,0 +1,206 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams a level in CHUNK_SIZE x CHUNK_SIZE tile chunks around the camera.
+ *
+ * Chunks that come within {@link #LOAD_MARGIN} chunks of the view are loaded
+ * from the ChunkSource on a background thread and handed over to the render
+ * thread in {@link #update}; chunks further than {@link #EVICT_MARGIN} chunks
+ * away are dropped again. Only resident chunks take memory, so memory and
+ * per-frame work follow the visible area rather than the level size.
+ *
+ * Tiles that are not resident are reported as solid, which keeps the player
+ * and drones inside the loaded area.
+ */
+public class ChunkedWorld implements TileMap {
+
+    public static final int CHUNK_SIZE = 32;
+
+    // Distances in chunks from the visible chunk range
+    private static final int LOAD_MARGIN = 1;
+    private static final int EVICT_MARGIN = 2;
+
+    /** Called on the render thread whenever a chunk becomes resident or is dropped. */
+    public interface Listener {
+        void chunkLoaded(Chunk chunk);
+
+        void chunkEvicted(Chunk chunk);
+    }
+
+    private final Listener listener;
+    private final ExecutorService loader;
+    private final ConcurrentLinkedQueue<Chunk> loaded = new ConcurrentLinkedQueue<>();
+
+    private final IntMap<Chunk> resident = new IntMap<>();
+    private final IntSet pending = new IntSet();
+    private final IntArray evictKeys = new IntArray();
+
+    private ChunkSource source;
+    private int width, height;
+    private int chunksX, chunksY;
+    private int epoch = 0;
+
+    // Most tile queries hit the same chunk as the previous one. DroneSwarm queries
+    // from several threads; any resident chunk is a correct hint, and contains() checks it
+    private Chunk lastChunk;
+
+    public ChunkedWorld(Listener listener) {
+        this.listener = listener;
+        this.loader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "chunk-loader");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Switches to a new level. Chunks of the old level are dropped without callbacks. */
+    public void setSource(ChunkSource source) {
+        epoch++;
+        resident.clear();
+        pending.clear();
+        loaded.clear();
+        lastChunk = null;
+
+        this.source = source;
+        this.width = source.getWidth();
+        this.height = source.getHeight();
+        this.chunksX = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunksY = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Streams chunks for the visible tile range: hands over finished loads,
+     * queues missing chunks near the view and evicts far away ones.
+     */
+    public void update(int minTx, int minTy, int maxTx, int maxTy) {
+        Chunk chunk;
+        while ((chunk = loaded.poll()) != null) {
+            if (chunk.epoch != epoch) continue; // loaded for a previous level
+            pending.remove(chunk.key);
+            if (resident.containsKey(chunk.key)) continue; // already loaded synchronously
+            resident.put(chunk.key, chunk);
+            listener.chunkLoaded(chunk);
+        }
+
+        int minCx = Math.floorDiv(minTx, CHUNK_SIZE), maxCx = Math.floorDiv(maxTx, CHUNK_SIZE);
+        int minCy = Math.floorDiv(minTy, CHUNK_SIZE), maxCy = Math.floorDiv(maxTy, CHUNK_SIZE);
+
+        for (int cy = Math.max(0, minCy - LOAD_MARGIN); cy <= Math.min(chunksY - 1, maxCy + LOAD_MARGIN); cy++) {
+            for (int cx = Math.max(0, minCx - LOAD_MARGIN); cx <= Math.min(chunksX - 1, maxCx + LOAD_MARGIN); cx++) {
+                int key = key(cx, cy);
+                if (resident.containsKey(key) || pending.contains(key)) continue;
+                pending.add(key);
+                requestLoad(cx, cy, key);
+            }
+        }
+
+        evictKeys.clear();
+        for (IntMap.Entry<Chunk> entry : resident) {
+            Chunk c = entry.value;
+            if (c.cx < minCx - EVICT_MARGIN || c.cx > maxCx + EVICT_MARGIN ||
+                c.cy < minCy - EVICT_MARGIN || c.cy > maxCy + EVICT_MARGIN) {
+                evictKeys.add(entry.key);
+            }
+        }
+        for (int i = 0; i < evictKeys.size; i++) {
+            Chunk c = resident.remove(evictKeys.get(i));
+            if (c == lastChunk) lastChunk = null;
+            listener.chunkEvicted(c);
+        }
+    }
+
+    /** Loads every chunk overlapping the tile range on the calling thread, e.g. around the spawn. */
+    public void loadNow(int minTx, int minTy, int maxTx, int maxTy) {
+        for (int cy = Math.max(0, Math.floorDiv(minTy, CHUNK_SIZE)); cy <= Math.min(chunksY - 1, Math.floorDiv(maxTy, CHUNK_SIZE)); cy++) {
+            for (int cx = Math.max(0, Math.floorDiv(minTx, CHUNK_SIZE)); cx <= Math.min(chunksX - 1, Math.floorDiv(maxTx, CHUNK_SIZE)); cx++) {
+                int key = key(cx, cy);
+                if (resident.containsKey(key)) continue;
+                Chunk chunk = new Chunk(cx, cy, key, source.loadChunk(cx, cy), epoch);
+                resident.put(key, chunk);
+                listener.chunkLoaded(chunk);
+            }
+        }
+    }
+
+    private void requestLoad(final int cx, final int cy, final int key) {
+        final ChunkSource s = source;
+        final int e = epoch;
+        loader.execute(() -> {
+            try {
+                loaded.add(new Chunk(cx, cy, key, s.loadChunk(cx, cy), e));
+            } catch (RuntimeException ex) {
+                Gdx.app.error("ChunkedWorld", "Failed to load chunk " + cx + "," + cy, ex);
+            }
+        });
+    }
+
+    private int key(int cx, int cy) {
+        return cy * chunksX + cx;
+    }
+
+    /** Resident chunk containing the tile, or null. */
+    public Chunk getChunk(int tx, int ty) {
+        Chunk c = lastChunk;
+        if (c != null && c.contains(tx, ty)) return c;
+        if (tx < 0 || tx >= width || ty < 0 || ty >= height) return null;
+
+        c = resident.get(key(tx / CHUNK_SIZE, ty / CHUNK_SIZE));
+        if (c != null) lastChunk = c;
+        return c;
+    }
+
+    public IntMap.Values<Chunk> getResidentChunks() {
+        return resident.values();
+    }
+
+    public int getResidentCount() {
+        return resident.size;
+    }
+
+    public boolean isResident(int tx, int ty) {
+        return getChunk(tx, ty) != null;
+    }
+
+    /** Marks or clears a baked obstacle. Ignored where nothing is loaded. */
+    public void setObstacle(int tx, int ty, boolean obstacle) {
+        Chunk c = getChunk(tx, ty);
+        if (c != null) c.tiles.setObstacle(tx - c.originX, ty - c.originY, obstacle);
+    }
+
+    @Override
+    public boolean isSolid(int tx, int ty) {
+        Chunk c = getChunk(tx, ty);
+        if (c == null) return true;
+        return c.tiles.isSolid(tx - c.originX, ty - c.originY);
+    }
+
+    @Override
+    public boolean isOpaque(int tx, int ty) {
+        Chunk c = getChunk(tx, ty);
+        if (c == null) return true;
+        return c.tiles.isOpaque(tx - c.originX, ty - c.originY);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    public void dispose() {
+        loader.shutdownNow();
+    }
+}
@@ -0,0 +1,76 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Darkness around the player's light, computed per fragment from the light
+ * centre and radius. Fully lit at the centre, falling off linearly to full
+ * darkness at the radius, over one quad that covers the view, so no mask
+ * texture has to be generated or uploaded.
+ *
+ * SpriteBatch sets u_texture on any shader it draws with, and ShaderProgram
+ * rejects uniforms a shader does not use, so the quad's white region is
+ * sampled into the alpha.
+ */
+public class DarknessPass {
+
+    private static final String VERTEX =
+        "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+        "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+        "uniform mat4 u_projTrans;\n" +
+        "uniform vec2 u_center;\n" +
+        "varying vec2 v_offset;\n" +
+        "varying vec2 v_texCoords;\n" +
+        "void main() {\n" +
+        "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n" +
+        // Subtract in the vertex shader so the fragment shader never sees world-sized values
+        "    v_offset = " + ShaderProgram.POSITION_ATTRIBUTE + ".xy - u_center;\n" +
+        "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n" +
+        "}\n";
+
+    private static final String FRAGMENT =
+        "#ifdef GL_ES\n" +
+        "precision mediump float;\n" +
+        "#endif\n" +
+        "uniform float u_radius;\n" +
+        "uniform sampler2D u_texture;\n" +
+        "varying vec2 v_offset;\n" +
+        "varying vec2 v_texCoords;\n" +
+        "void main() {\n" +
+        "    float alpha = clamp(length(v_offset) / u_radius, 0.0, 1.0);\n" +
+        "    gl_FragColor = vec4(0.0, 0.0, 0.0, alpha * texture2D(u_texture, v_texCoords).a);\n" +
+        "}\n";
+
+    private final ShaderProgram shader;
+
+    public DarknessPass() {
+        shader = new ShaderProgram(VERTEX, FRAGMENT);
+        if (!shader.isCompiled()) throw new GdxRuntimeException("Couldn't compile darkness shader: " + shader.getLog());
+    }
+
+    /**
+     * Darkens the rectangle (normally the camera view) except around the light.
+     * The batch must not be drawing and keeps its projection matrix.
+     */
+    public void render(SpriteBatch batch, TextureRegion region, float lightX, float lightY, float radius,
+                       float x, float y, float width, float height) {
+        // Keeps what is already drawn by (1 - alpha)
+        batch.setBlendFunction(GL20.GL_ZERO, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        batch.setShader(shader);
+        batch.begin();
+        shader.setUniformf("u_center", lightX, lightY);
+        shader.setUniformf("u_radius", radius);
+        batch.draw(region, x, y, width, height);
+        batch.end();
+        batch.setShader(null);
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    public void dispose() {
+        shader.dispose();
+    }
+}
@@ -0,0 +1,34 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Pool;
+
+/** An exit. It can be opened once every generator is done, by holding F on it. */
+public class DoorComponent implements Component, Pool.Poolable {
+
+    public static final float MAX_PROGRESS = 2f; // seconds to open
+
+    public float progress = 0f;
+    public boolean open = false;
+    public boolean openable = false; // set by ObjectiveSystem when all generators are done
+    public TextureRegion openRegion;
+
+    /** Returns true on the step the door opens. */
+    public boolean progress(float delta) {
+        if (!openable || open) return false;
+        progress += delta;
+        if (progress < MAX_PROGRESS) return false;
+        progress = MAX_PROGRESS;
+        open = true;
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        progress = 0f;
+        open = false;
+        openable = false;
+        openRegion = null;
+    }
+}
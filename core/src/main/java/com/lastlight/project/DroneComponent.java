@@ -0,0 +1,36 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.Random;
+
+/** Movement and trap-laying state of a drone, advanced by DroneSystem. */
+public class DroneComponent implements Component, Pool.Poolable {
+
+    public final Vector2 direction = new Vector2();
+    public float changeDirTimer = 0f;
+    public float trapTimer = 0f;
+    public int trapsLaid = 0;
+    // Seeded per drone, so its path can be replayed
+    public final Random random = new Random();
+
+    // Tiles towards the player while outside the flow fields' window, and the one it is on
+    public final IntArray route = new IntArray();
+    public int routeIndex = 0;
+    public int routeVersion = -1;
+    public int routeGoalX = 0, routeGoalY = 0;
+
+    @Override
+    public void reset() {
+        direction.setZero();
+        changeDirTimer = 0f;
+        trapTimer = 0f;
+        trapsLaid = 0;
+        route.clear();
+        routeIndex = 0;
+        routeVersion = -1;
+    }
+}
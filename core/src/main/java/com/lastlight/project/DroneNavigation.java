@@ -0,0 +1,118 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The flow fields every drone steers by: one towards the player, for drones
+ * close enough to hunt, and one towards the generators, which the others
+ * patrol. Both are centred on the player, who is where the active drones are.
+ *
+ * The chase field is rebuilt when the player enters another tile, the patrol
+ * field when the player has moved a quarter of the window away from its
+ * centre. Both are rebuilt after {@link #invalidate}, for map changes such as
+ * a door opening or a chunk streaming in.
+ *
+ * Drones outside the fields' window follow {@link #route}s instead, planned
+ * on a HierarchicalPathfinder over the whole level, until the fields take
+ * over. Tile changes go through {@link #tileChanged} and
+ * {@link #regionChanged}, which repair the graph and rebuild the fields.
+ */
+public class DroneNavigation {
+
+    /** Half the field window in tiles; covers the streamed-in area around the player. */
+    public static final int RADIUS = 40;
+
+    public final FlowField chase = new FlowField(RADIUS);
+    public final FlowField patrol = new FlowField(RADIUS);
+
+    private final float tileSize;
+    private final Array<Entity> nearbyGenerators = new Array<>();
+
+    private HierarchicalPathfinder routes;
+    private final IntArray waypoints = new IntArray();
+    // Bumped whenever the graph changes, so routes planned before can be dropped
+    private int version = 0;
+
+    public DroneNavigation(float tileSize) {
+        this.tileSize = tileSize;
+    }
+
+    public void update(TileMap map, float playerX, float playerY, SpatialHash<Entity> generators) {
+        int tx = (int) Math.floor(playerX / tileSize);
+        int ty = (int) Math.floor(playerY / tileSize);
+
+        if (!chase.isValid() || tx != chase.getCenterX() || ty != chase.getCenterY()) {
+            chase.begin(tx, ty);
+            chase.addTarget(tx, ty);
+            chase.compute(map);
+        }
+
+        if (!patrol.isValid() || Math.abs(tx - patrol.getCenterX()) > RADIUS / 4
+            || Math.abs(ty - patrol.getCenterY()) > RADIUS / 4) {
+            patrol.begin(tx, ty);
+            float window = (RADIUS * 2 + 1) * tileSize;
+            nearbyGenerators.clear();
+            generators.queryAabb((tx - RADIUS) * tileSize, (ty - RADIUS) * tileSize, window, window, nearbyGenerators);
+            for (int i = 0; i < nearbyGenerators.size; i++) {
+                TransformComponent g = Mappers.transform.get(nearbyGenerators.get(i));
+                patrol.addTarget((int) (g.position.x / tileSize), (int) (g.position.y / tileSize));
+            }
+            patrol.compute(map);
+        }
+    }
+
+    public void invalidate() {
+        chase.invalidate();
+        patrol.invalidate();
+    }
+
+    /** Builds the route graph for a new level, once its first tiles are set; a level of the same size reuses it. */
+    public void reset(TileMap map) {
+        if (routes == null || routes.getMap() != map
+            || routes.getWidth() != map.getWidth() || routes.getHeight() != map.getHeight()) {
+            routes = new HierarchicalPathfinder(map, map.getWidth(), map.getHeight());
+        } else {
+            routes.rebuild();
+        }
+        version++;
+        invalidate();
+    }
+
+    /** A tile became free or solid, e.g. a door opened. */
+    public void tileChanged(int tx, int ty) {
+        if (routes != null) routes.tileChanged(tx, ty);
+        version++;
+        invalidate();
+    }
+
+    /** Tiles of the rectangle changed, e.g. a chunk was loaded or evicted. */
+    public void regionChanged(int x, int y, int w, int h) {
+        if (routes != null) routes.regionChanged(x, y, w, h);
+        version++;
+        invalidate();
+    }
+
+    /** True if the tile lies in the fields' window, where drones steer by them. */
+    public boolean isInWindow(int tx, int ty) {
+        return chase.isValid() && Math.abs(tx - chase.getCenterX()) <= RADIUS && Math.abs(ty - chase.getCenterY()) <= RADIUS;
+    }
+
+    /**
+     * Replaces {@code out} with every tile from the start to the goal, as x, y
+     * pairs; false if there is no graph yet or no way there.
+     */
+    public boolean route(int sx, int sy, int gx, int gy, IntArray out) {
+        out.clear();
+        waypoints.clear();
+        if (routes == null || !routes.findPath(sx, sy, gx, gy, waypoints)) return false;
+        routes.refine(waypoints, out);
+        return true;
+    }
+
+    /** Changes each time the graph does; a route planned at another version may be blocked. */
+    public int getVersion() {
+        return version;
+    }
+}
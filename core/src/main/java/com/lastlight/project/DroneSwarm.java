@@ -0,0 +1,418 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.GridPoint2;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Swarm mode drones, tens of thousands of them, kept in parallel primitive
+ * arrays instead of one entity each. They behave like the drones of
+ * DroneSystem: chase, patrol or wander, slide along walls and lay traps.
+ *
+ * {@link #step} cuts the index range into slices and moves them on a
+ * fork/join pool. A drone only reads the map and the navigation fields and
+ * only writes its own slots, so slices need no locking. Every drone draws
+ * from its own random stream, so the result is the same for any number of
+ * threads. Traps are not laid during the step: drones that are due one are
+ * flagged, and {@link #layTraps} lays them afterwards on the calling thread,
+ * in index order. Slices also check their drones against the player's box,
+ * see {@link #setPlayer}, so catching the player takes no serial pass.
+ *
+ * The map and the fields must not change while a step runs. Slice tasks are
+ * made when the thread count is set, and the calling thread moves a slice
+ * itself and then waits without blocking, so steps do not allocate. Drones in
+ * an evicted chunk are taken out with {@link #park} and cost nothing until
+ * {@link #resume} brings them back.
+ */
+public class DroneSwarm {
+
+    // Slices per thread, so a thread that finishes early can take another
+    private static final int SLICES_PER_THREAD = 4;
+    // Fewer drones than this per slice cost more to schedule than to move
+    private static final int MIN_SLICE = 256;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final TileMap map;
+    private final DroneNavigation navigation;
+    private final float tileSize;
+    private final float size;
+
+    // One slot per drone, read in place by SwarmRenderSystem. The arrays are
+    // replaced when the swarm grows, so read them again after adding drones
+    float[] x, y, previousX, previousY;
+    float[] dirX, dirY;
+    float[] changeDirTimer, trapTimer;
+    int[] trapsLaid;
+    private long[] random;
+    private boolean[] trapDue;
+    private int count = 0;
+
+    private int threads;
+    private ForkJoinPool pool;
+    private Slice[] slices;
+    private int sliceCount = 0;
+    private float delta;
+
+    // The player's box; drones overlapping it after their move catch the player
+    private boolean hasPlayer = false;
+    private float playerX, playerY, playerW, playerH;
+
+    /** Moves the drones in [from, to) and keeps what the step found there. */
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final GridPoint2 nextTile = new GridPoint2();
+        int from, to;
+        int trapsDue;
+        boolean touchingPlayer;
+
+        @Override
+        protected void compute() {
+            update(this);
+        }
+    }
+
+    /** Drones taken out of the swarm while their chunk is unloaded, with all of their state. */
+    static final class Parked {
+        final float[] x, y, dirX, dirY, changeDirTimer, trapTimer;
+        final int[] trapsLaid;
+        final long[] random;
+
+        Parked(int count) {
+            x = new float[count];
+            y = new float[count];
+            dirX = new float[count];
+            dirY = new float[count];
+            changeDirTimer = new float[count];
+            trapTimer = new float[count];
+            trapsLaid = new int[count];
+            random = new long[count];
+        }
+
+        int size() {
+            return x.length;
+        }
+    }
+
+    /** @param size side of a drone's box, as for entity drones */
+    public DroneSwarm(TileMap map, DroneNavigation navigation, float tileSize, float size, int threads) {
+        this.map = map;
+        this.navigation = navigation;
+        this.tileSize = tileSize;
+        this.size = size;
+        allocate(INITIAL_CAPACITY);
+        setThreads(threads);
+    }
+
+    /** Threads that move drones; 1 moves them on the caller. */
+    public void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (pool != null) pool.shutdown();
+        this.threads = threads;
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        slices = new Slice[threads * SLICES_PER_THREAD];
+        for (int s = 0; s < slices.length; s++) slices[s] = new Slice();
+        sliceCount = 0;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /** Adds a drone at a tile corner; {@code seed} starts its random stream. */
+    public int add(float x, float y, long seed) {
+        if (count == this.x.length) allocate(count * 2);
+        int i = count++;
+        this.x[i] = previousX[i] = x;
+        this.y[i] = previousY[i] = y;
+        changeDirTimer[i] = 0f;
+        trapsLaid[i] = 0;
+        trapDue[i] = false;
+        random[i] = mix(seed);
+        pickRandomDirection(i);
+        resetTrapTimer(i);
+        return i;
+    }
+
+    public void clear() {
+        count = 0;
+        sliceCount = 0;
+    }
+
+    /**
+     * Takes out every drone whose position lies in the world rectangle, for
+     * an evicted chunk; null if there are none. The others keep their order.
+     */
+    Parked park(float bx, float by, float bw, float bh) {
+        int parkedCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (x[i] >= bx && x[i] < bx + bw && y[i] >= by && y[i] < by + bh) parkedCount++;
+        }
+        if (parkedCount == 0) return null;
+
+        Parked parked = new Parked(parkedCount);
+        int kept = 0, p = 0;
+        for (int i = 0; i < count; i++) {
+            if (x[i] >= bx && x[i] < bx + bw && y[i] >= by && y[i] < by + bh) {
+                parked.x[p] = x[i];
+                parked.y[p] = y[i];
+                parked.dirX[p] = dirX[i];
+                parked.dirY[p] = dirY[i];
+                parked.changeDirTimer[p] = changeDirTimer[i];
+                parked.trapTimer[p] = trapTimer[i];
+                parked.trapsLaid[p] = trapsLaid[i];
+                parked.random[p] = random[i];
+                p++;
+                continue;
+            }
+            if (kept != i) {
+                x[kept] = x[i];
+                y[kept] = y[i];
+                previousX[kept] = previousX[i];
+                previousY[kept] = previousY[i];
+                dirX[kept] = dirX[i];
+                dirY[kept] = dirY[i];
+                changeDirTimer[kept] = changeDirTimer[i];
+                trapTimer[kept] = trapTimer[i];
+                trapsLaid[kept] = trapsLaid[i];
+                random[kept] = random[i];
+                trapDue[kept] = trapDue[i];
+            }
+            kept++;
+        }
+        count = kept;
+        // Slice ranges no longer match the slots
+        sliceCount = 0;
+        return parked;
+    }
+
+    /** Puts parked drones back at the end of the swarm, where they were. */
+    void resume(Parked parked) {
+        while (count + parked.size() > x.length) allocate(x.length * 2);
+        for (int p = 0; p < parked.size(); p++) {
+            int i = count++;
+            x[i] = previousX[i] = parked.x[p];
+            y[i] = previousY[i] = parked.y[p];
+            dirX[i] = parked.dirX[p];
+            dirY[i] = parked.dirY[p];
+            changeDirTimer[i] = parked.changeDirTimer[p];
+            trapTimer[i] = parked.trapTimer[p];
+            trapsLaid[i] = parked.trapsLaid[p];
+            random[i] = parked.random[p];
+            trapDue[i] = false;
+        }
+    }
+
+    // ======================
+    // STEP
+    // ======================
+    /** The box the next steps check drones against, usually the player's. */
+    public void setPlayer(float x, float y, float w, float h) {
+        hasPlayer = true;
+        playerX = x;
+        playerY = y;
+        playerW = w;
+        playerH = h;
+    }
+
+    public void clearPlayer() {
+        hasPlayer = false;
+    }
+
+    public void step(float delta) {
+        this.delta = delta;
+        sliceCount = pool == null ? 1 : Math.max(1, Math.min(slices.length, (count + MIN_SLICE - 1) / MIN_SLICE));
+
+        int perSlice = (count + sliceCount - 1) / sliceCount;
+        for (int s = 0; s < sliceCount; s++) {
+            Slice slice = slices[s];
+            slice.reinitialize();
+            slice.from = Math.min(count, s * perSlice);
+            slice.to = Math.min(count, slice.from + perSlice);
+        }
+        if (sliceCount == 1) {
+            // Not worth forking; the one slice runs on the caller
+            slices[0].compute();
+            return;
+        }
+        // The caller moves the first slice itself. It then yields until the
+        // others are done rather than blocking in join, which would allocate a
+        // wait node on every step; join only rethrows what a slice threw
+        for (int s = 1; s < sliceCount; s++) pool.execute(slices[s]);
+        slices[0].compute();
+        for (int s = sliceCount - 1; s > 0; s--) {
+            while (!slices[s].isDone()) Thread.yield();
+            slices[s].join();
+        }
+    }
+
+    /** Lays the traps drones were due during the last step, in index order; slices without any are skipped. */
+    public int layTraps(EntityFactory factory) {
+        int laid = 0;
+        for (int s = 0; s < sliceCount; s++) {
+            Slice slice = slices[s];
+            if (slice.trapsDue == 0) continue;
+            for (int i = slice.from; i < slice.to; i++) {
+                if (!trapDue[i]) continue;
+                trapDue[i] = false;
+                factory.trap(x[i], y[i]);
+                laid++;
+            }
+            slice.trapsDue = 0;
+        }
+        return laid;
+    }
+
+    /** True if a drone overlapped the player's box after the last step. */
+    public boolean isTouchingPlayer() {
+        for (int s = 0; s < sliceCount; s++) {
+            if (slices[s].touchingPlayer) return true;
+        }
+        return false;
+    }
+
+    public float getSize() {
+        return size;
+    }
+
+    public void dispose() {
+        if (pool != null) pool.shutdown();
+        pool = null;
+    }
+
+    // Same steering as DroneSystem.processEntity, on slots instead of components
+    private void update(Slice slice) {
+        FlowField chase = navigation.chase, patrol = navigation.patrol;
+        GridPoint2 nextTile = slice.nextTile;
+        float delta = this.delta;
+        float half = size / 2f;
+        boolean hasPlayer = this.hasPlayer;
+        float playerX = this.playerX, playerY = this.playerY, playerW = this.playerW, playerH = this.playerH;
+        int trapsDue = 0;
+        boolean touchingPlayer = false;
+
+        for (int i = slice.from; i < slice.to; i++) {
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+
+            int tx = (int) Math.floor((x[i] + half) / tileSize);
+            int ty = (int) Math.floor((y[i] + half) / tileSize);
+            int chaseDistance = chase.distance(tx, ty);
+            int patrolDistance = patrol.distance(tx, ty);
+
+            if (chaseDistance >= 0 && chaseDistance <= DroneSystem.CHASE_RANGE && steer(i, chase, tx, ty, nextTile)) {
+                changeDirTimer[i] = 0f;
+            } else if (patrolDistance > DroneSystem.PATROL_RANGE && steer(i, patrol, tx, ty, nextTile)) {
+                changeDirTimer[i] = 0f;
+            } else {
+                changeDirTimer[i] -= delta;
+                if (changeDirTimer[i] <= 0f) {
+                    pickRandomDirection(i);
+                    changeDirTimer[i] = DroneSystem.CHANGE_DIR_INTERVAL;
+                }
+            }
+
+            float moveX = dirX[i] * DroneSystem.SPEED * delta;
+            float moveY = dirY[i] * DroneSystem.SPEED * delta;
+            if (!isColliding(x[i] + moveX, y[i])) x[i] += moveX;
+            if (!isColliding(x[i], y[i] + moveY)) y[i] += moveY;
+
+            if (hasPlayer && x[i] < playerX + playerW && x[i] + size > playerX
+                && y[i] < playerY + playerH && y[i] + size > playerY) touchingPlayer = true;
+
+            // Flagged here, laid by layTraps
+            if (trapsLaid[i] < DroneSystem.MAX_TRAPS) {
+                trapTimer[i] -= delta;
+                if (trapTimer[i] <= 0f) {
+                    trapDue[i] = true;
+                    trapsDue++;
+                    trapsLaid[i]++;
+                    resetTrapTimer(i);
+                }
+            }
+        }
+        slice.trapsDue = trapsDue;
+        slice.touchingPlayer = touchingPlayer;
+    }
+
+    private boolean steer(int i, FlowField field, int tx, int ty, GridPoint2 nextTile) {
+        if (!field.step(tx, ty, nextTile)) return false;
+        setDirection(i, (nextTile.x + 0.5f) * tileSize - (x[i] + size / 2f),
+            (nextTile.y + 0.5f) * tileSize - (y[i] + size / 2f));
+        return true;
+    }
+
+    private boolean isColliding(float x, float y) {
+        int leftTile = (int) (x / tileSize);
+        int rightTile = (int) ((x + size) / tileSize);
+        int bottomTile = (int) (y / tileSize);
+        int topTile = (int) ((y + size) / tileSize);
+
+        for (int ty = bottomTile; ty <= topTile; ty++) {
+            for (int tx = leftTile; tx <= rightTile; tx++) {
+                if (map.isSolid(tx, ty)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void pickRandomDirection(int i) {
+        setDirection(i, nextFloat(i) - 0.5f, nextFloat(i) - 0.5f);
+    }
+
+    private void resetTrapTimer(int i) {
+        trapTimer[i] = DroneSystem.MIN_TRAP_INTERVAL
+            + nextFloat(i) * (DroneSystem.MAX_TRAP_INTERVAL - DroneSystem.MIN_TRAP_INTERVAL);
+    }
+
+    // Normalised like Vector2.nor(); a zero vector stays zero
+    private void setDirection(int i, float dx, float dy) {
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        if (length != 0f) {
+            dx /= length;
+            dy /= length;
+        }
+        dirX[i] = dx;
+        dirY[i] = dy;
+    }
+
+    // ======================
+    // RANDOM
+    // ======================
+
+    // SplitMix64: one long of state per drone, advanced by a constant and mixed
+    private float nextFloat(int i) {
+        long z = random[i] += 0x9E3779B97F4A7C15L;
+        return (mix(z) >>> 40) * 0x1p-24f;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        previousX = grow(previousX, capacity);
+        previousY = grow(previousY, capacity);
+        dirX = grow(dirX, capacity);
+        dirY = grow(dirY, capacity);
+        changeDirTimer = grow(changeDirTimer, capacity);
+        trapTimer = grow(trapTimer, capacity);
+        trapsLaid = trapsLaid == null ? new int[capacity] : Arrays.copyOf(trapsLaid, capacity);
+        random = random == null ? new long[capacity] : Arrays.copyOf(random, capacity);
+        trapDue = trapDue == null ? new boolean[capacity] : Arrays.copyOf(trapDue, capacity);
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
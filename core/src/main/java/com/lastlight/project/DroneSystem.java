@@ -0,0 +1,191 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.math.GridPoint2;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Drone movement and trap laying. Drones hunt the player within CHASE_RANGE
+ * tiles of path, otherwise head for the generators and wander once within
+ * PATROL_RANGE of one; see DroneNavigation for the fields they steer by.
+ * Drones outside the fields' window follow a route towards the player until
+ * they are in it. Only a few routes are planned per step, so a door opening
+ * does not replan every drone at once.
+ *
+ * Traps are created through the factory while the engine is updating, so
+ * they join the engine, and the broadphase, right after this system.
+ */
+public class DroneSystem extends IteratingSystem {
+
+    // Shared with DroneSwarm, whose drones behave the same
+    static final float SPEED = 60f;
+    static final float CHANGE_DIR_INTERVAL = 1.0f; // seconds
+    static final int CHASE_RANGE = 10;
+    static final int PATROL_RANGE = 3;
+    static final float MIN_TRAP_INTERVAL = 10f;
+    static final float MAX_TRAP_INTERVAL = 20f;
+    static final int MAX_TRAPS = 5;
+    private static final int ROUTES_PER_STEP = 4;
+
+    private final TileMap map;
+    private final Broadphase broadphase;
+    private final DroneNavigation navigation;
+    private final EntityFactory factory;
+    private final float tileSize;
+    private ImmutableArray<Entity> players;
+    private boolean hasPlayer;
+    private int playerTx, playerTy;
+    private int routesPlanned;
+
+    private final Vector2 move = new Vector2();
+    private final GridPoint2 nextTile = new GridPoint2();
+
+    public DroneSystem(int priority, TileMap map, Broadphase broadphase, DroneNavigation navigation,
+                       EntityFactory factory, float tileSize) {
+        super(Family.all(DroneComponent.class, TransformComponent.class).exclude(SuspendedComponent.class).get(), priority);
+        this.map = map;
+        this.broadphase = broadphase;
+        this.navigation = navigation;
+        this.factory = factory;
+        this.tileSize = tileSize;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        super.addedToEngine(engine);
+        players = engine.getEntitiesFor(Family.all(PlayerComponent.class, TransformComponent.class).get());
+    }
+
+    @Override
+    public void update(float delta) {
+        hasPlayer = players.size() > 0;
+        if (hasPlayer) {
+            TransformComponent player = Mappers.transform.get(players.first());
+            navigation.update(map, player.getCenterX(), player.getCenterY(), broadphase.generators);
+            playerTx = (int) Math.floor(player.getCenterX() / tileSize);
+            playerTy = (int) Math.floor(player.getCenterY() / tileSize);
+        }
+        routesPlanned = 0;
+        super.update(delta);
+    }
+
+    static void pickRandomDirection(DroneComponent drone) {
+        drone.direction.set(drone.random.nextFloat() - 0.5f, drone.random.nextFloat() - 0.5f).nor();
+    }
+
+    static void resetTrapTimer(DroneComponent drone) {
+        drone.trapTimer = MIN_TRAP_INTERVAL + drone.random.nextFloat() * (MAX_TRAP_INTERVAL - MIN_TRAP_INTERVAL);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float delta) {
+        DroneComponent drone = Mappers.drone.get(entity);
+        TransformComponent transform = Mappers.transform.get(entity);
+        Vector2 position = transform.position;
+        float size = transform.size;
+
+        // Pick a direction: chase, patrol, or wander
+        int tx = (int) Math.floor(transform.getCenterX() / tileSize);
+        int ty = (int) Math.floor(transform.getCenterY() / tileSize);
+        int chaseDistance = navigation.chase.distance(tx, ty);
+        int patrolDistance = navigation.patrol.distance(tx, ty);
+
+        if (chaseDistance >= 0 && chaseDistance <= CHASE_RANGE && steer(drone, transform, navigation.chase, tx, ty)) {
+            drone.changeDirTimer = 0f;
+        } else if (patrolDistance > PATROL_RANGE && steer(drone, transform, navigation.patrol, tx, ty)) {
+            drone.changeDirTimer = 0f;
+        } else if (followRoute(drone, transform, tx, ty)) {
+            drone.changeDirTimer = 0f;
+        } else {
+            drone.changeDirTimer -= delta;
+            if (drone.changeDirTimer <= 0f) {
+                pickRandomDirection(drone);
+                drone.changeDirTimer = CHANGE_DIR_INTERVAL;
+            }
+        }
+
+        move.set(drone.direction).scl(SPEED * delta);
+        if (!isColliding(position.x + move.x, position.y, size)) position.x += move.x;
+        if (!isColliding(position.x, position.y + move.y, size)) position.y += move.y;
+        broadphase.drones.move(entity, position.x, position.y, size, size);
+
+        // Trap laying at the current position
+        if (drone.trapsLaid < MAX_TRAPS) {
+            drone.trapTimer -= delta;
+            if (drone.trapTimer <= 0f) {
+                factory.trap(position.x, position.y);
+                drone.trapsLaid++;
+                resetTrapTimer(drone);
+            }
+        }
+    }
+
+    // Heads for the centre of the field's next tile; false if there is none
+    private boolean steer(DroneComponent drone, TransformComponent transform, FlowField field, int tx, int ty) {
+        if (!field.step(tx, ty, nextTile)) return false;
+        drone.direction.set((nextTile.x + 0.5f) * tileSize - transform.getCenterX(),
+            (nextTile.y + 0.5f) * tileSize - transform.getCenterY()).nor();
+        return true;
+    }
+
+    // Outside the window, heads for the next tile of the route; false inside it or without a route
+    private boolean followRoute(DroneComponent drone, TransformComponent transform, int tx, int ty) {
+        IntArray route = drone.route;
+        if (!hasPlayer || navigation.isInWindow(tx, ty)) {
+            // Planned again when it leaves the window
+            route.clear();
+            drone.routeVersion = -1;
+            return false;
+        }
+
+        // Past the next tile; a drone pushed off its route, a changed map or a
+        // player gone far from the goal needs a new one
+        int i = drone.routeIndex;
+        if (i + 3 < route.size && route.get(i + 2) == tx && route.get(i + 3) == ty) i += 2;
+        boolean onRoute = i + 3 < route.size && route.get(i) == tx && route.get(i + 1) == ty;
+        boolean stale = drone.routeVersion != navigation.getVersion()
+            || Math.abs(playerTx - drone.routeGoalX) > DroneNavigation.RADIUS / 4
+            || Math.abs(playerTy - drone.routeGoalY) > DroneNavigation.RADIUS / 4;
+        // No way to the player was found; wait for something to change
+        if (route.size == 0 && !stale) return false;
+        if (!onRoute || stale) {
+            if (routesPlanned == ROUTES_PER_STEP) return onRoute && steerTo(drone, transform, route.get(i + 2), route.get(i + 3));
+            routesPlanned++;
+            drone.routeVersion = navigation.getVersion();
+            drone.routeGoalX = playerTx;
+            drone.routeGoalY = playerTy;
+            if (!navigation.route(tx, ty, playerTx, playerTy, route) || route.size < 4) {
+                route.clear();
+                return false;
+            }
+            i = 0;
+        }
+        drone.routeIndex = i;
+        return steerTo(drone, transform, route.get(i + 2), route.get(i + 3));
+    }
+
+    private boolean steerTo(DroneComponent drone, TransformComponent transform, int nextX, int nextY) {
+        drone.direction.set((nextX + 0.5f) * tileSize - transform.getCenterX(),
+            (nextY + 0.5f) * tileSize - transform.getCenterY()).nor();
+        return true;
+    }
+
+    private boolean isColliding(float x, float y, float size) {
+        int leftTile = (int) (x / tileSize);
+        int rightTile = (int) ((x + size) / tileSize);
+        int bottomTile = (int) (y / tileSize);
+        int topTile = (int) ((y + size) / tileSize);
+
+        for (int ty = bottomTile; ty <= topTile; ty++) {
+            for (int tx = leftTile; tx <= rightTile; tx++) {
+                if (map.isSolid(tx, ty)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Builds the game's entities from the engine's pools and adds them to it.
+ * Positions are the bottom-left corner of the tile the entity stands on.
+ * Without an atlas, e.g. in a headless benchmark, sprites have no region.
+ */
+public class EntityFactory {
+
+    /** Side of a drone's box, in tiles. */
+    public static final float DRONE_SIZE = 0.8f;
+
+    private final PooledEngine engine;
+    private final float tileSize;
+    private final TextureRegion playerRegion, droneRegion, trapRegion, generatorRegion;
+    private final TextureRegion doorClosedRegion, doorOpenRegion;
+    private final TextureRegion shieldRegion, sodaRegion, batteryRegion;
+
+    public EntityFactory(PooledEngine engine, float tileSize, TextureAtlas atlas) {
+        this.engine = engine;
+        this.tileSize = tileSize;
+        playerRegion = find(atlas, "Player");
+        droneRegion = find(atlas, "Drone");
+        trapRegion = find(atlas, "Trap");
+        generatorRegion = find(atlas, "Generator");
+        doorClosedRegion = find(atlas, "DoorClosed");
+        doorOpenRegion = find(atlas, "DoorOpen");
+        shieldRegion = find(atlas, "Shield");
+        sodaRegion = find(atlas, "Soda");
+        batteryRegion = find(atlas, "Battery");
+    }
+
+    private static TextureRegion find(TextureAtlas atlas, String name) {
+        return atlas != null ? atlas.findRegion(name) : null;
+    }
+
+    /** The player, centred on the tile. */
+    public Entity player(float x, float y) {
+        float size = tileSize * 0.4f;
+        Entity e = create(x + (tileSize - size) / 2f, y + (tileSize - size) / 2f, size,
+            playerRegion, SpriteComponent.LAYER_PLAYER, false);
+        e.add(engine.createComponent(PlayerComponent.class));
+        engine.addEntity(e);
+        return e;
+    }
+
+    /** A drone with its own random sequence, so its path can be replayed. */
+    public Entity drone(float x, float y, long seed) {
+        Entity e = create(x, y, tileSize * DRONE_SIZE, droneRegion, SpriteComponent.LAYER_DRONE, true);
+        DroneComponent drone = engine.createComponent(DroneComponent.class);
+        drone.random.setSeed(seed);
+        DroneSystem.pickRandomDirection(drone);
+        DroneSystem.resetTrapTimer(drone);
+        e.add(drone);
+        engine.addEntity(e);
+        return e;
+    }
+
+    public Entity trap(float x, float y) {
+        Entity e = create(x, y, tileSize * 0.5f, trapRegion, SpriteComponent.LAYER_TRAP, true);
+        e.add(engine.createComponent(TrapComponent.class));
+        engine.addEntity(e);
+        return e;
+    }
+
+    public Entity generator(float x, float y) {
+        Entity e = create(x, y, tileSize, generatorRegion, SpriteComponent.LAYER_GENERATOR, false);
+        e.add(engine.createComponent(GeneratorComponent.class));
+        engine.addEntity(e);
+        return e;
+    }
+
+    public Entity door(float x, float y) {
+        Entity e = create(x, y, tileSize, doorClosedRegion, SpriteComponent.LAYER_DOOR, false);
+        DoorComponent door = engine.createComponent(DoorComponent.class);
+        door.openRegion = doorOpenRegion;
+        e.add(door);
+        engine.addEntity(e);
+        return e;
+    }
+
+    public Entity item(float x, float y, ItemType type) {
+        Entity e = create(x, y, tileSize * 0.6f, getItemRegion(type), SpriteComponent.LAYER_ITEM, true);
+        ItemComponent item = engine.createComponent(ItemComponent.class);
+        item.type = type;
+        e.add(item);
+        engine.addEntity(e);
+        return e;
+    }
+
+    public TextureRegion getItemRegion(ItemType type) {
+        switch (type) {
+            case SHIELD:
+                return shieldRegion;
+            case SODA:
+                return sodaRegion;
+            case BATTERY:
+                return batteryRegion;
+            default:
+                return null;
+        }
+    }
+
+    private Entity create(float x, float y, float size, TextureRegion region, int layer, boolean needsSight) {
+        Entity e = engine.createEntity();
+        e.add(engine.createComponent(TransformComponent.class).set(x, y, size));
+        e.add(engine.createComponent(SpriteComponent.class).set(region, layer, needsSight));
+        return e;
+    }
+}
@@ -0,0 +1,116 @@
+package com.lastlight.project;
+
+import java.util.Arrays;
+
+/**
+ * Tiles visible from the player, found with recursive shadowcasting over the
+ * opaque tiles of the map and limited to a radius in tiles.
+ *
+ * The result only changes when the origin tile or the radius does, so
+ * {@link #update} returns early otherwise, and the visible set is a small
+ * window around the origin rather than a map-sized array. Call
+ * {@link #invalidate} when the map itself changes, e.g. a chunk streams in.
+ */
+public class FieldOfView {
+
+    // Octant transforms: row/column deltas to map deltas (xx, xy, yx, yy)
+    private static final int[][] OCTANTS = {
+        {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+        {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+
+    private TileMap map;
+    private int originX, originY, radius = -1;
+    private boolean valid = false;
+
+    // (2 * radius + 1)^2 window centred on the origin
+    private boolean[] visible = new boolean[0];
+    private int windowSize;
+
+    private int computeCount = 0;
+
+    /** Recomputes visibility if the origin tile or radius changed since the last call. */
+    public void update(TileMap map, int originX, int originY, int radius) {
+        if (valid && map == this.map && originX == this.originX && originY == this.originY && radius == this.radius) return;
+
+        this.map = map;
+        this.originX = originX;
+        this.originY = originY;
+        this.radius = radius;
+        valid = true;
+        computeCount++;
+
+        windowSize = radius * 2 + 1;
+        if (visible.length < windowSize * windowSize) visible = new boolean[windowSize * windowSize];
+        else Arrays.fill(visible, 0, windowSize * windowSize, false);
+
+        setVisible(originX, originY);
+        for (int[] o : OCTANTS) castLight(1, 1f, 0f, o[0], o[1], o[2], o[3]);
+    }
+
+    /** Forces the next update to recompute. */
+    public void invalidate() {
+        valid = false;
+    }
+
+    public boolean isVisible(int tx, int ty) {
+        int lx = tx - originX + radius, ly = ty - originY + radius;
+        if (!valid || lx < 0 || ly < 0 || lx >= windowSize || ly >= windowSize) return false;
+        return visible[ly * windowSize + lx];
+    }
+
+    /** Visibility of the tile under a world position. */
+    public boolean isVisible(float x, float y, float tileSize) {
+        return isVisible((int) Math.floor(x / tileSize), (int) Math.floor(y / tileSize));
+    }
+
+    /** How often visibility was actually recomputed, for the F3 profiler log. */
+    public int getComputeCount() {
+        return computeCount;
+    }
+
+    private void setVisible(int tx, int ty) {
+        visible[(ty - originY + radius) * windowSize + (tx - originX + radius)] = true;
+    }
+
+    /**
+     * Scans one octant row by row, between the start and end slopes. When a
+     * run of opaque tiles ends, the part behind it is scanned recursively with
+     * the narrowed slopes.
+     */
+    private void castLight(int row, float start, float end, int xx, int xy, int yx, int yy) {
+        if (start < end) return;
+        int r2 = radius * radius;
+        float newStart = 0f;
+
+        for (int j = row; j <= radius; j++) {
+            boolean blocked = false;
+            int dy = -j;
+            for (int dx = -j; dx <= 0; dx++) {
+                float leftSlope = (dx - 0.5f) / (dy + 0.5f);
+                float rightSlope = (dx + 0.5f) / (dy - 0.5f);
+                if (start < rightSlope) continue;
+                if (end > leftSlope) break;
+
+                int tx = originX + dx * xx + dy * xy;
+                int ty = originY + dx * yx + dy * yy;
+                if (dx * dx + dy * dy <= r2) setVisible(tx, ty);
+
+                boolean opaque = map.isOpaque(tx, ty);
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    castLight(j + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) break;
+        }
+    }
+}
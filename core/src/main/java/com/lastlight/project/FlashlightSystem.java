@@ -0,0 +1,58 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+
+/**
+ * The flashlight: holding the left button widens the light and drains the
+ * battery, letting go shrinks it and recharges. A flat battery locks the
+ * light for a while.
+ */
+public class FlashlightSystem extends IteratingSystem {
+
+    public static final float MIN_RADIUS = 128f;
+    public static final float MAX_RADIUS = 512f;
+    private static final float GROW_SPEED = 64f;
+    private static final float SHRINK_SPEED = 64f;
+    private static final float DRAIN_RATE = 10f;
+    private static final float RECHARGE_RATE = 20f;
+    private static final float LOCK_DURATION = 2f;
+
+    private final AudioService audio;
+
+    public FlashlightSystem(int priority, AudioService audio) {
+        super(Family.all(PlayerComponent.class).get(), priority);
+        this.audio = audio;
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float delta) {
+        PlayerComponent player = Mappers.player.get(entity);
+
+        if (player.flashlightLocked) {
+            player.flashlightLockTimer -= delta;
+            if (player.flashlightLockTimer <= 0) player.flashlightLocked = false;
+        }
+
+        boolean held = Gdx.input.isButtonPressed(Input.Buttons.LEFT);
+
+        if (!player.flashlightLocked && held && player.battery > 0) {
+            player.lightRadius = Math.min(MAX_RADIUS, player.lightRadius + GROW_SPEED * delta);
+            player.drainBattery(DRAIN_RATE * delta);
+            if (player.battery <= 0) {
+                player.flashlightLocked = true;
+                player.flashlightLockTimer = LOCK_DURATION;
+            }
+        } else {
+            player.lightRadius = Math.max(MIN_RADIUS, player.lightRadius - SHRINK_SPEED * delta);
+            if (!player.flashlightLocked) player.rechargeBattery(RECHARGE_RATE * delta);
+        }
+
+        if (held && !player.lightHeld) audio.play(AudioService.Clip.LIGHT_ON, 0.5f);
+        if (!held && player.lightHeld) audio.play(AudioService.Clip.LIGHT_OFF, 0.4f);
+        player.lightHeld = held;
+    }
+}
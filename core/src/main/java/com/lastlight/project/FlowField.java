@@ -0,0 +1,133 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.GridPoint2;
+
+import java.util.Arrays;
+
+/**
+ * Walking distance to the nearest of a set of target tiles, for every tile
+ * in a square window, from one breadth-first pass over the passable tiles.
+ * Any number of agents can then find their next tile towards the targets
+ * with a look at their neighbours, instead of searching a path each.
+ *
+ * The window is centred where {@link #begin} says, usually on the player,
+ * and tiles outside it have no distance. Targets may be solid themselves
+ * (a generator); the search starts on them and spreads into free tiles.
+ */
+public class FlowField {
+
+    // Neighbour offsets, the four sides first
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final int radius;
+    private final int windowSize;
+    private final int[] distance;
+    private final int[] queue;
+    private int head, tail;
+
+    private int centerX, centerY;
+    private boolean valid = false;
+    private int computeCount = 0;
+
+    /** @param radius half the window size in tiles */
+    public FlowField(int radius) {
+        this.radius = radius;
+        this.windowSize = radius * 2 + 1;
+        this.distance = new int[windowSize * windowSize];
+        this.queue = new int[windowSize * windowSize];
+    }
+
+    /** Starts a new field around a window centre; add the targets, then {@link #compute}. */
+    public void begin(int centerX, int centerY) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        Arrays.fill(distance, -1);
+        head = tail = 0;
+        valid = false;
+    }
+
+    /** Targets outside the window are ignored. */
+    public void addTarget(int tx, int ty) {
+        int i = index(tx, ty);
+        if (i < 0 || distance[i] == 0) return;
+        distance[i] = 0;
+        queue[tail++] = i;
+    }
+
+    public void compute(TileMap map) {
+        computeCount++;
+        int originX = centerX - radius, originY = centerY - radius;
+        while (head < tail) {
+            int i = queue[head++];
+            int lx = i % windowSize, ly = i / windowSize;
+            int next = distance[i] + 1;
+            for (int n = 0; n < 4; n++) {
+                int nx = lx + DX[n], ny = ly + DY[n];
+                if (nx < 0 || ny < 0 || nx >= windowSize || ny >= windowSize) continue;
+                int ni = ny * windowSize + nx;
+                if (distance[ni] >= 0 || map.isSolid(originX + nx, originY + ny)) continue;
+                distance[ni] = next;
+                queue[tail++] = ni;
+            }
+        }
+        valid = true;
+    }
+
+    /** Forces the owner to rebuild the field, e.g. after a door opened. */
+    public void invalidate() {
+        valid = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public int getCenterX() {
+        return centerX;
+    }
+
+    public int getCenterY() {
+        return centerY;
+    }
+
+    /** Steps from the tile to the nearest target, or -1 when it is outside the window or cut off. */
+    public int distance(int tx, int ty) {
+        int i = index(tx, ty);
+        return valid && i >= 0 ? distance[i] : -1;
+    }
+
+    /**
+     * The neighbour of the tile that is closest to a target. Diagonal steps
+     * are taken when both sides they pass are free, so paths do not zigzag
+     * across open floor or clip wall corners. Returns false on a target or
+     * off the field.
+     */
+    public boolean step(int tx, int ty, GridPoint2 out) {
+        int best = distance(tx, ty);
+        if (best <= 0) return false;
+
+        int bestN = -1;
+        for (int n = 0; n < 8; n++) {
+            int d = distance(tx + DX[n], ty + DY[n]);
+            if (d < 0 || d >= best) continue;
+            if (n >= 4 && (distance(tx + DX[n], ty) < 0 || distance(tx, ty + DY[n]) < 0)) continue;
+            best = d;
+            bestN = n;
+        }
+        if (bestN < 0) return false;
+        out.set(tx + DX[bestN], ty + DY[bestN]);
+        return true;
+    }
+
+    /** How often the field was rebuilt, for the F3 profiler log. */
+    public int getComputeCount() {
+        return computeCount;
+    }
+
+    private int index(int tx, int ty) {
+        int lx = tx - centerX + radius, ly = ty - centerY + radius;
+        if (lx < 0 || ly < 0 || lx >= windowSize || ly >= windowSize) return -1;
+        return ly * windowSize + lx;
+    }
+}
@@ -0,0 +1,161 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Loads assets in groups tied to the game state that needs them. Images are
+ * decoded in parallel by an {@link ImageLoader}, sounds go through an
+ * AssetManager.
+ *
+ * The menu group (the sprite atlas) is loaded up front, since the menu and
+ * the world share it. The gameplay group (every sound) is queued right after
+ * and streams in a few milliseconds per frame while the menu is up; the
+ * intro and the game wait for it. The end screen images are only loaded
+ * when their state is entered and unloaded again when it is left.
+ *
+ * Which files exist comes from assets.txt, written by the generateAssetList
+ * Gradle task. Without it every file is looked up on disk instead.
+ */
+public class GameAssets implements AudioService.SoundSource {
+
+    public static final String ATLAS = "atlas/sprites.atlas";
+    public static final String VICTORY_SCREEN = "VictoryScreen.jpg";
+    public static final String GAME_OVER_SCREEN = "GameOverScreen.jpg";
+
+    /** Milliseconds per frame that loading may block the render thread. */
+    private static final int UPDATE_BUDGET_MS = 4;
+
+    private final AssetManager manager = new AssetManager();
+    private final ImageLoader images = new ImageLoader();
+    private TextureAtlas atlas;
+    // Optional images that were asked for, and those of them already uploaded
+    private final ObjectSet<String> wantedTextures = new ObjectSet<>();
+    private final ObjectMap<String, Texture> textures = new ObjectMap<>();
+    private final ObjectSet<String> manifest; // null without assets.txt
+    private final String[] soundPaths = new String[AudioService.Clip.values().length];
+    private final long createdAt = System.nanoTime();
+    private boolean gameplayLogged = false;
+    private GameState state;
+
+    public GameAssets() {
+        FileHandle list = Gdx.files.internal("assets.txt");
+        if (list.exists()) {
+            manifest = new ObjectSet<>();
+            for (String line : list.readString("UTF-8").split("\n")) {
+                String path = line.trim().replace('\\', '/');
+                if (!path.isEmpty()) manifest.add(path);
+            }
+        } else {
+            manifest = null;
+        }
+        // The WAV from the convertAudio task when it was built, otherwise the MP3 source
+        for (AudioService.Clip clip : AudioService.Clip.values()) {
+            String wav = "audio/" + clip.file + ".wav";
+            soundPaths[clip.ordinal()] = exists(wav) ? wav : clip.file + ".mp3";
+        }
+    }
+
+    /** Loads the menu group synchronously and queues the gameplay group behind it. */
+    public void loadMenu() {
+        FileHandle packFile = Gdx.files.internal(ATLAS);
+        TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(packFile, packFile.parent(), false);
+        // Every page decodes at once; the atlas keeps the textures set on its pages
+        for (TextureAtlas.TextureAtlasData.Page page : data.getPages()) {
+            images.load(page.textureFile, page.format, page.useMipMaps, (path, texture) -> page.texture = texture);
+        }
+        images.finish();
+        atlas = new TextureAtlas(data);
+
+        for (String path : soundPaths) manager.load(path, Sound.class);
+    }
+
+    /**
+     * Called once per frame with the current state: loads or unloads the
+     * end screen image on state changes, then spends the frame's loading budget.
+     */
+    public void update(GameState state) {
+        if (this.state == null) {
+            Gdx.app.log("GameAssets", String.format("first frame %.0f ms after start", (System.nanoTime() - createdAt) / 1e6f));
+        }
+        if (state != this.state) {
+            setLoaded(VICTORY_SCREEN, state == GameState.WIN);
+            setLoaded(GAME_OVER_SCREEN, state == GameState.GAME_OVER);
+            this.state = state;
+        }
+        manager.update(UPDATE_BUDGET_MS);
+
+        if (!gameplayLogged && isGameplayLoaded()) {
+            gameplayLogged = true;
+            Gdx.app.log("GameAssets", String.format("gameplay assets ready %.0f ms after start",
+                (System.nanoTime() - createdAt) / 1e6f));
+        }
+    }
+
+    private void setLoaded(String path, boolean loaded) {
+        if (!exists(path)) return;
+        if (loaded && wantedTextures.add(path)) {
+            images.load(Gdx.files.internal(path), this::textureLoaded);
+        } else if (!loaded && wantedTextures.remove(path)) {
+            Texture texture = textures.remove(path);
+            if (texture != null) texture.dispose();
+        }
+    }
+
+    // The state may have been left while the image was decoding
+    private void textureLoaded(String path, Texture texture) {
+        if (wantedTextures.contains(path)) textures.put(path, texture);
+        else texture.dispose();
+    }
+
+    /** True once every asset the intro and the game play need is in memory. */
+    public boolean isGameplayLoaded() {
+        for (String path : soundPaths) {
+            if (!manager.isLoaded(path)) return false;
+        }
+        return true;
+    }
+
+    /** Fraction of the queued sounds that has loaded. */
+    public float getProgress() {
+        return manager.getProgress();
+    }
+
+    public TextureAtlas getAtlas() {
+        return atlas;
+    }
+
+    /** The sound of a clip, or null while it is still loading. */
+    @Override
+    public Sound getSound(AudioService.Clip clip) {
+        String path = soundPath(clip);
+        return manager.isLoaded(path) ? manager.get(path, Sound.class) : null;
+    }
+
+    /** An optional image, or null while it is not loaded. */
+    public Texture getTexture(String path) {
+        return textures.get(path);
+    }
+
+    private String soundPath(AudioService.Clip clip) {
+        return soundPaths[clip.ordinal()];
+    }
+
+    private boolean exists(String path) {
+        return manifest != null ? manifest.contains(path) : Gdx.files.internal(path).exists();
+    }
+
+    public void dispose() {
+        images.dispose();
+        if (atlas != null) atlas.dispose();
+        for (Texture texture : textures.values()) texture.dispose();
+        textures.clear();
+        manager.dispose();
+    }
+}
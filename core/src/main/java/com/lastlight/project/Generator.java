@@ -1,84 +0,0 @@
-package com.lastlight.project;
-
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-
-public class Generator {
-    public Vector2 position;
-    private Texture texture;
-    public float size;
-
-    private float progress = 0f;
-    private final float maxProgress = 5f; // seconds to complete
-    private boolean completed = false;
-    private boolean counted = false;
-
-    public Generator(Vector2 pos, Texture texture, float tileSize) {
-        this.position = new Vector2(pos);
-        this.texture = texture;
-        this.size = tileSize;
-    }
-
-    public void progress(float delta) {
-        if (!completed) {
-            progress += delta;
-            if (progress >= maxProgress) {
-                progress = maxProgress;
-                completed = true;
-            }
-        }
-    }
-
-    public void renderProgressBar(ShapeRenderer sr) {
-        if (completed) return;
-
-        float barWidth = size;
-        float barHeight = 6f;
-        float x = position.x;
-        float y = position.y + size + 6f;
-
-        float ratio = progress / maxProgress;
-
-        sr.setColor(0.15f, 0.15f, 0.15f, 1f);
-        sr.rect(x, y, barWidth, barHeight);
-
-        sr.setColor(0.2f, 0.9f, 0.2f, 1f);
-        sr.rect(x, y, barWidth * ratio, barHeight);
-    }
-
-    public boolean isCompleted() {
-        return completed;
-    }
-
-    public boolean isCounted() {
-        return counted;
-    }
-
-    public void setCounted(boolean counted) {
-        this.counted = counted;
-    }
-
-    public float getProgress() {
-        return progress;
-    }
-
-    public float getMaxProgress() {
-        return maxProgress;
-    }
-
-    public void render(SpriteBatch batch) {
-        batch.draw(texture, position.x, position.y, size, size);
-    }
-
-    public void reset() {
-        progress = 0f;
-        completed = false;
-    }
-
-
-    public void dispose() {
-        // Texture handled in Main
-    }
-}
@@ -0,0 +1,31 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+
+/** Repair state of a generator, advanced while the player holds F on it. */
+public class GeneratorComponent implements Component, Pool.Poolable {
+
+    public static final float MAX_PROGRESS = 5f; // seconds to complete
+
+    public float progress = 0f;
+    public boolean completed = false;
+    // Already added to the completed count by ObjectiveSystem
+    public boolean counted = false;
+
+    public void progress(float delta) {
+        if (completed) return;
+        progress += delta;
+        if (progress >= MAX_PROGRESS) {
+            progress = MAX_PROGRESS;
+            completed = true;
+        }
+    }
+
+    @Override
+    public void reset() {
+        progress = 0f;
+        completed = false;
+        counted = false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.GridPoint2;
+
+/** Serves chunks out of a fully generated TileGrid, e.g. a map from the MapPool. */
+public class GridChunkSource implements ChunkSource {
+
+    private final TileGrid map;
+    private final GridPoint2 spawnTile = new GridPoint2(1, 1);
+    private int generatorCount = 0;
+
+    public GridChunkSource(TileGrid map) {
+        this.map = map;
+
+        for (int ty = 0; ty < map.getHeight(); ty++) {
+            for (int tx = 0; tx < map.getWidth(); tx++) {
+                byte marker = map.getMarker(tx, ty);
+                if (marker == TileGrid.PLAYER) spawnTile.set(tx, ty);
+                else if (marker == TileGrid.GENERATOR) generatorCount++;
+            }
+        }
+    }
+
+    @Override
+    public TileGrid loadChunk(int cx, int cy) {
+        int originX = cx * ChunkedWorld.CHUNK_SIZE;
+        int originY = cy * ChunkedWorld.CHUNK_SIZE;
+        int w = Math.min(ChunkedWorld.CHUNK_SIZE, map.getWidth() - originX);
+        int h = Math.min(ChunkedWorld.CHUNK_SIZE, map.getHeight() - originY);
+
+        TileGrid chunk = new TileGrid(w, h);
+        chunk.setSeed(ChunkSource.chunkSeed(map.getSeed(), cx, cy));
+        for (int ty = 0; ty < h; ty++) {
+            for (int tx = 0; tx < w; tx++) {
+                chunk.setTile(tx, ty, map.getTile(originX + tx, originY + ty));
+                chunk.setMarker(tx, ty, map.getMarker(originX + tx, originY + ty));
+            }
+        }
+        return chunk;
+    }
+
+    @Override
+    public int getWidth() {
+        return map.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return map.getHeight();
+    }
+
+    @Override
+    public GridPoint2 getSpawnTile() {
+        return spawnTile;
+    }
+
+    @Override
+    public int getGeneratorCount() {
+        return generatorCount;
+    }
+}
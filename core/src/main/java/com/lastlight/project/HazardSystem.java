@@ -0,0 +1,44 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
+
+/** Ends the game when the player touches a trap or a drone, swarm drones included, without a shield. */
+public class HazardSystem extends EntitySystem {
+
+    private final Broadphase broadphase;
+    private final DroneSwarm swarm;
+    private final Simulation.Listener listener;
+    private ImmutableArray<Entity> players;
+    private final Array<Entity> touching = new Array<>();
+
+    public HazardSystem(int priority, Broadphase broadphase, DroneSwarm swarm, Simulation.Listener listener) {
+        super(priority);
+        this.broadphase = broadphase;
+        this.swarm = swarm;
+        this.listener = listener;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        players = engine.getEntitiesFor(Family.all(PlayerComponent.class, TransformComponent.class).get());
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int i = 0; i < players.size(); i++) {
+            Entity entity = players.get(i);
+            if (Mappers.player.get(entity).shieldActive) continue;
+
+            TransformComponent t = Mappers.transform.get(entity);
+            touching.clear();
+            broadphase.traps.queryAabb(t.position.x, t.position.y, t.size, t.size, touching);
+            broadphase.drones.queryAabb(t.position.x, t.position.y, t.size, t.size, touching);
+            if (touching.size > 0 || swarm.isTouchingPlayer()) listener.playerCaught();
+        }
+    }
+}
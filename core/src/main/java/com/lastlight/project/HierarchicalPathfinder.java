@@ -0,0 +1,553 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.Arrays;
+
+/**
+ * Long routes over a bounded tile map with hierarchical pathfinding (HPA*).
+ *
+ * The map is cut into square clusters. Where two clusters share a run of
+ * free tiles along their border, the run becomes an entrance: one transition
+ * in its middle, or one at each end for wide runs, each a pair of nodes on
+ * either side of the border. Nodes of the same cluster are linked by their
+ * walking distance inside it. A query only has to link the start and goal to
+ * the nodes of their own clusters and search this small graph; the result is
+ * a list of waypoints, each reachable from the last without leaving a
+ * cluster, which {@link #refine} expands into tiles when needed.
+ *
+ * Paths are 4-connected with unit steps. Found paths are kept in an LRU
+ * cache keyed by start and goal tile, for routes that are asked for again,
+ * like drones going between generators or to the exits. Its entries are
+ * reused, so queries stop allocating once it is full. When a tile changes,
+ * e.g. a door opens, {@link #tileChanged} rebuilds only the entrances and
+ * links of the clusters around it; {@link #regionChanged} does the same for
+ * a chunk streaming in or out.
+ */
+public class HierarchicalPathfinder {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int CACHE_SIZE = 256;
+    // Border openings at least this wide get a transition at each end
+    private static final int WIDE_ENTRANCE = 6;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final TileMap map;
+    private final int width, height;
+    private final int clusterSize, clustersX, clustersY;
+
+    // Abstract graph; a dead node has cluster -1 and its id is in freeNodes
+    private final IntArray nodeX = new IntArray(), nodeY = new IntArray();
+    private final IntArray nodeCluster = new IntArray(), nodePartner = new IntArray();
+    // (target, cost) pairs to the other nodes of the same cluster
+    private final Array<IntArray> nodeEdges = new Array<>();
+    private final IntArray freeNodes = new IntArray();
+    private final IntArray[] clusterNodes;
+    // Nodes on the border to the right of a cluster at 2 * cluster, above it at 2 * cluster + 1
+    private final IntArray[] borderNodes;
+    private int liveNodes = 0;
+
+    // Breadth-first search inside one cluster
+    private final int[] localDist, localQueue;
+    private int localX0, localY0, localW, localH;
+
+    // A* over the graph; entries are valid for the search whose stamp they carry
+    private int[] cost = new int[0], parent = new int[0], goalCost = new int[0];
+    private int[] costStamp = new int[0], closedStamp = new int[0], goalStamp = new int[0];
+    private int stamp = 0;
+    private final IntArray heapNode = new IntArray(), heapF = new IntArray();
+
+    // Entries are taken in order while the cache fills, then the least recently used is reused
+    private final LongMap<CachedPath> cache = new LongMap<>(CACHE_SIZE);
+    private final CachedPath[] cacheEntries = new CachedPath[CACHE_SIZE];
+    private int cacheSize = 0, cacheClock = 0;
+    private int cacheHits = 0, cacheMisses = 0;
+
+    private static final class CachedPath {
+        long key;
+        int used;
+        final IntArray waypoints = new IntArray();
+    }
+
+    public HierarchicalPathfinder(TileMap map, int width, int height) {
+        this(map, width, height, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathfinder(TileMap map, int width, int height, int clusterSize) {
+        this.map = map;
+        this.width = width;
+        this.height = height;
+        this.clusterSize = clusterSize;
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clustersY = (height + clusterSize - 1) / clusterSize;
+
+        int clusters = clustersX * clustersY;
+        clusterNodes = new IntArray[clusters];
+        borderNodes = new IntArray[clusters * 2];
+        for (int c = 0; c < clusters; c++) clusterNodes[c] = new IntArray(8);
+        for (int b = 0; b < borderNodes.length; b++) borderNodes[b] = new IntArray(4);
+        localDist = new int[clusterSize * clusterSize];
+        localQueue = new int[clusterSize * clusterSize];
+        rebuild();
+    }
+
+    /** Builds the whole graph again from the map, e.g. for a new level of the same size; storage is kept. */
+    public void rebuild() {
+        for (int b = 0; b < borderNodes.length; b++) clearBorder(b);
+        int clusters = clustersX * clustersY;
+        for (int c = 0; c < clusters; c++) {
+            buildBorder(c, true);
+            buildBorder(c, false);
+        }
+        for (int c = 0; c < clusters; c++) connectCluster(c);
+        clearCache();
+    }
+
+    // ======================
+    // GRAPH CONSTRUCTION
+    // ======================
+
+    /** Finds the entrances between a cluster and its neighbour to the right (east) or above. */
+    private void buildBorder(int c, boolean east) {
+        int cx = c % clustersX, cy = c / clustersX;
+        if (east ? cx + 1 >= clustersX : cy + 1 >= clustersY) return;
+
+        IntArray nodes = borderNodes[c * 2 + (east ? 0 : 1)];
+        // The border line inside this cluster, and how far it runs
+        int line = east ? Math.min((cx + 1) * clusterSize, width) - 1 : Math.min((cy + 1) * clusterSize, height) - 1;
+        int from = east ? cy * clusterSize : cx * clusterSize;
+        int to = east ? Math.min(from + clusterSize, height) : Math.min(from + clusterSize, width);
+
+        int runStart = -1;
+        for (int i = from; i <= to; i++) {
+            boolean open = i < to && (east
+                ? !map.isSolid(line, i) && !map.isSolid(line + 1, i)
+                : !map.isSolid(i, line) && !map.isSolid(i, line + 1));
+            if (open && runStart < 0) runStart = i;
+            if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    addTransition(nodes, east, line, runStart);
+                    addTransition(nodes, east, line, runEnd);
+                } else {
+                    addTransition(nodes, east, line, (runStart + runEnd) / 2);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void addTransition(IntArray border, boolean east, int line, int i) {
+        int a = east ? newNode(line, i) : newNode(i, line);
+        int b = east ? newNode(line + 1, i) : newNode(i, line + 1);
+        nodePartner.set(a, b);
+        nodePartner.set(b, a);
+        border.add(a);
+        border.add(b);
+    }
+
+    private int newNode(int x, int y) {
+        int n;
+        if (freeNodes.size > 0) {
+            n = freeNodes.pop();
+            nodeX.set(n, x);
+            nodeY.set(n, y);
+        } else {
+            n = nodeX.size;
+            nodeX.add(x);
+            nodeY.add(y);
+            nodeCluster.add(-1);
+            nodePartner.add(-1);
+            nodeEdges.add(new IntArray(8));
+        }
+        int c = clusterOf(x, y);
+        nodeCluster.set(n, c);
+        clusterNodes[c].add(n);
+        liveNodes++;
+        return n;
+    }
+
+    private void clearBorder(int border) {
+        IntArray nodes = borderNodes[border];
+        for (int i = 0; i < nodes.size; i++) {
+            int n = nodes.get(i);
+            clusterNodes[nodeCluster.get(n)].removeValue(n);
+            nodeCluster.set(n, -1);
+            nodePartner.set(n, -1);
+            nodeEdges.get(n).clear();
+            freeNodes.add(n);
+            liveNodes--;
+        }
+        nodes.clear();
+    }
+
+    /** Links every pair of nodes in the cluster that can reach each other inside it. */
+    private void connectCluster(int c) {
+        IntArray nodes = clusterNodes[c];
+        for (int i = 0; i < nodes.size; i++) {
+            int n = nodes.get(i);
+            IntArray edges = nodeEdges.get(n);
+            edges.clear();
+            searchCluster(c, nodeX.get(n), nodeY.get(n));
+            for (int j = 0; j < nodes.size; j++) {
+                if (i == j) continue;
+                int m = nodes.get(j);
+                int d = localDistance(nodeX.get(m), nodeY.get(m));
+                if (d < 0) continue;
+                edges.add(m);
+                edges.add(d);
+            }
+        }
+    }
+
+    /**
+     * Repairs the graph after the tile became free or solid: the entrances on
+     * the cluster borders it lies on, and the links of the clusters on both
+     * sides. Cached paths are dropped, since a shorter way may now exist.
+     */
+    public void tileChanged(int tx, int ty) {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height) return;
+        int cx = tx / clusterSize, cy = ty / clusterSize;
+        int c = cy * clustersX + cx;
+
+        boolean right = tx == Math.min((cx + 1) * clusterSize, width) - 1 && cx + 1 < clustersX;
+        boolean left = tx == cx * clusterSize && cx > 0;
+        boolean top = ty == Math.min((cy + 1) * clusterSize, height) - 1 && cy + 1 < clustersY;
+        boolean bottom = ty == cy * clusterSize && cy > 0;
+
+        if (right) rebuildBorder(c, true);
+        if (left) rebuildBorder(c - 1, true);
+        if (top) rebuildBorder(c, false);
+        if (bottom) rebuildBorder(c - clustersX, false);
+
+        connectCluster(c);
+        if (right) connectCluster(c + 1);
+        if (left) connectCluster(c - 1);
+        if (top) connectCluster(c + clustersX);
+        if (bottom) connectCluster(c - clustersX);
+
+        clearCache();
+    }
+
+    /**
+     * Repairs the graph after any tiles of the rectangle changed, e.g. a chunk
+     * was loaded or evicted: the borders inside and around it, and the links
+     * of the clusters on either side of them.
+     */
+    public void regionChanged(int x, int y, int w, int h) {
+        int minCx = Math.max(0, x / clusterSize), maxCx = Math.min(clustersX - 1, (x + w - 1) / clusterSize);
+        int minCy = Math.max(0, y / clusterSize), maxCy = Math.min(clustersY - 1, (y + h - 1) / clusterSize);
+        if (w <= 0 || h <= 0 || minCx > maxCx || minCy > maxCy) return;
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = Math.max(0, minCx - 1); cx <= maxCx; cx++) rebuildBorder(cy * clustersX + cx, true);
+        }
+        for (int cy = Math.max(0, minCy - 1); cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) rebuildBorder(cy * clustersX + cx, false);
+        }
+        // The clusters around the rectangle share a rebuilt border with it, those on its corners do not
+        for (int cy = Math.max(0, minCy - 1); cy <= Math.min(clustersY - 1, maxCy + 1); cy++) {
+            for (int cx = Math.max(0, minCx - 1); cx <= Math.min(clustersX - 1, maxCx + 1); cx++) {
+                boolean column = cx >= minCx && cx <= maxCx, row = cy >= minCy && cy <= maxCy;
+                if (column || row) connectCluster(cy * clustersX + cx);
+            }
+        }
+        clearCache();
+    }
+
+    private void rebuildBorder(int c, boolean east) {
+        clearBorder(c * 2 + (east ? 0 : 1));
+        buildBorder(c, east);
+    }
+
+    // ======================
+    // QUERIES
+    // ======================
+
+    /**
+     * Appends the waypoints from the start to the goal tile to {@code out}
+     * as x, y pairs, start and goal included. Returns false, leaving
+     * {@code out} alone, when either is solid or the goal cannot be reached.
+     */
+    public boolean findPath(int sx, int sy, int gx, int gy, IntArray out) {
+        if (!isFree(sx, sy) || !isFree(gx, gy)) return false;
+
+        long key = ((long) (sy * width + sx) << 32) | (gy * width + gx);
+        CachedPath cached = cache.get(key);
+        if (cached != null) {
+            cacheHits++;
+            cached.used = ++cacheClock;
+            out.addAll(cached.waypoints);
+            return true;
+        }
+        cacheMisses++;
+
+        int start = out.size;
+        if (!search(sx, sy, gx, gy, out)) return false;
+        CachedPath entry = takeCacheEntry();
+        entry.key = key;
+        entry.used = ++cacheClock;
+        entry.waypoints.clear();
+        entry.waypoints.addAll(out, start, out.size - start);
+        cache.put(key, entry);
+        return true;
+    }
+
+    private CachedPath takeCacheEntry() {
+        if (cacheSize < CACHE_SIZE) {
+            if (cacheEntries[cacheSize] == null) cacheEntries[cacheSize] = new CachedPath();
+            return cacheEntries[cacheSize++];
+        }
+        CachedPath oldest = cacheEntries[0];
+        for (int i = 1; i < CACHE_SIZE; i++) {
+            if (cacheEntries[i].used < oldest.used) oldest = cacheEntries[i];
+        }
+        cache.remove(oldest.key);
+        return oldest;
+    }
+
+    private boolean search(int sx, int sy, int gx, int gy, IntArray out) {
+        int sc = clusterOf(sx, sy), gc = clusterOf(gx, gy);
+
+        // Inside one cluster a local search is both exact and cheaper
+        if (sc == gc) {
+            searchCluster(sc, sx, sy);
+            if (localDistance(gx, gy) >= 0) {
+                out.add(sx, sy);
+                if (sx != gx || sy != gy) out.add(gx, gy);
+                return true;
+            }
+        }
+
+        prepareSearch();
+
+        // The goal joins the graph through the nodes of its cluster that reach it
+        searchCluster(gc, gx, gy);
+        IntArray goalNodes = clusterNodes[gc];
+        for (int i = 0; i < goalNodes.size; i++) {
+            int n = goalNodes.get(i);
+            int d = localDistance(nodeX.get(n), nodeY.get(n));
+            if (d < 0) continue;
+            goalCost[n] = d;
+            goalStamp[n] = stamp;
+        }
+
+        // And the start through those of its own
+        searchCluster(sc, sx, sy);
+        IntArray startNodes = clusterNodes[sc];
+        for (int i = 0; i < startNodes.size; i++) {
+            int n = startNodes.get(i);
+            int d = localDistance(nodeX.get(n), nodeY.get(n));
+            if (d >= 0) relax(n, -1, d, gx, gy);
+        }
+
+        int best = UNREACHED, bestNode = -1;
+        while (heapNode.size > 0) {
+            if (heapF.get(0) >= best) break;
+            int n = popHeap();
+            if (closedStamp[n] == stamp) continue;
+            closedStamp[n] = stamp;
+
+            int g = cost[n];
+            if (goalStamp[n] == stamp && g + goalCost[n] < best) {
+                best = g + goalCost[n];
+                bestNode = n;
+            }
+            int partner = nodePartner.get(n);
+            if (partner >= 0) relax(partner, n, g + 1, gx, gy);
+            IntArray edges = nodeEdges.get(n);
+            for (int i = 0; i < edges.size; i += 2) relax(edges.get(i), n, g + edges.get(i + 1), gx, gy);
+        }
+        if (bestNode < 0) return false;
+
+        // Walk back from the goal, then reverse the node part in place
+        int first = out.size;
+        out.add(gx, gy);
+        for (int n = bestNode; n >= 0; n = parent[n]) {
+            int x = nodeX.get(n), y = nodeY.get(n);
+            // Transitions on a corner can put two nodes on one tile
+            if (out.get(out.size - 2) != x || out.get(out.size - 1) != y) out.add(x, y);
+        }
+        if (out.get(out.size - 2) != sx || out.get(out.size - 1) != sy) out.add(sx, sy);
+        for (int i = first, j = out.size - 2; i < j; i += 2, j -= 2) {
+            out.swap(i, j);
+            out.swap(i + 1, j + 1);
+        }
+        return true;
+    }
+
+    private void relax(int n, int from, int g, int gx, int gy) {
+        if (closedStamp[n] == stamp) return;
+        if (costStamp[n] == stamp && cost[n] <= g) return;
+        cost[n] = g;
+        costStamp[n] = stamp;
+        parent[n] = from;
+        pushHeap(n, g + Math.abs(nodeX.get(n) - gx) + Math.abs(nodeY.get(n) - gy));
+    }
+
+    /**
+     * Expands waypoints from {@link #findPath} into every tile along the way,
+     * appended to {@code out} as x, y pairs.
+     */
+    public void refine(IntArray waypoints, IntArray out) {
+        if (waypoints.size < 2) return;
+        out.add(waypoints.get(0), waypoints.get(1));
+        for (int i = 2; i < waypoints.size; i += 2) {
+            int ax = waypoints.get(i - 2), ay = waypoints.get(i - 1);
+            int bx = waypoints.get(i), by = waypoints.get(i + 1);
+            int ca = clusterOf(ax, ay);
+            if (ca != clusterOf(bx, by)) {
+                // Across a border: the tiles are neighbours
+                out.add(bx, by);
+                continue;
+            }
+            // Search back from b, then walk downhill from a
+            searchCluster(ca, bx, by);
+            int x = ax, y = ay;
+            int d = localDistance(x, y);
+            while (d > 0) {
+                if (localDistance(x + 1, y) == d - 1) x++;
+                else if (localDistance(x - 1, y) == d - 1) x--;
+                else if (localDistance(x, y + 1) == d - 1) y++;
+                else y--;
+                d--;
+                out.add(x, y);
+            }
+        }
+    }
+
+    // ======================
+    // CLUSTER SEARCH
+    // ======================
+
+    /** Breadth-first distances from the tile to every tile of the cluster, read back with {@link #localDistance}. */
+    private void searchCluster(int c, int sx, int sy) {
+        localX0 = (c % clustersX) * clusterSize;
+        localY0 = (c / clustersX) * clusterSize;
+        localW = Math.min(clusterSize, width - localX0);
+        localH = Math.min(clusterSize, height - localY0);
+        Arrays.fill(localDist, 0, localW * localH, -1);
+
+        int head = 0, tail = 0;
+        int s = (sy - localY0) * localW + (sx - localX0);
+        localDist[s] = 0;
+        localQueue[tail++] = s;
+        while (head < tail) {
+            int i = localQueue[head++];
+            int lx = i % localW, ly = i / localW;
+            int d = localDist[i] + 1;
+            if (lx + 1 < localW) tail = visit(i + 1, lx + 1, ly, d, tail);
+            if (lx > 0) tail = visit(i - 1, lx - 1, ly, d, tail);
+            if (ly + 1 < localH) tail = visit(i + localW, lx, ly + 1, d, tail);
+            if (ly > 0) tail = visit(i - localW, lx, ly - 1, d, tail);
+        }
+    }
+
+    private int visit(int i, int lx, int ly, int d, int tail) {
+        if (localDist[i] >= 0 || map.isSolid(localX0 + lx, localY0 + ly)) return tail;
+        localDist[i] = d;
+        localQueue[tail] = i;
+        return tail + 1;
+    }
+
+    private int localDistance(int x, int y) {
+        int lx = x - localX0, ly = y - localY0;
+        if (lx < 0 || ly < 0 || lx >= localW || ly >= localH) return -1;
+        return localDist[ly * localW + lx];
+    }
+
+    // ======================
+    // HELPERS
+    // ======================
+
+    private int clusterOf(int x, int y) {
+        return (y / clusterSize) * clustersX + x / clusterSize;
+    }
+
+    private boolean isFree(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && !map.isSolid(x, y);
+    }
+
+    private void prepareSearch() {
+        int n = nodeX.size;
+        if (cost.length < n) {
+            int size = Math.max(n, cost.length * 2);
+            cost = Arrays.copyOf(cost, size);
+            parent = Arrays.copyOf(parent, size);
+            goalCost = Arrays.copyOf(goalCost, size);
+            costStamp = Arrays.copyOf(costStamp, size);
+            closedStamp = Arrays.copyOf(closedStamp, size);
+            goalStamp = Arrays.copyOf(goalStamp, size);
+        }
+        stamp++;
+        heapNode.clear();
+        heapF.clear();
+    }
+
+    // Binary min-heap on f; stale entries are skipped when popped
+    private void pushHeap(int n, int f) {
+        int i = heapNode.size;
+        heapNode.add(n);
+        heapF.add(f);
+        while (i > 0) {
+            int p = (i - 1) / 2;
+            if (heapF.get(p) <= f) break;
+            heapNode.set(i, heapNode.get(p));
+            heapF.set(i, heapF.get(p));
+            i = p;
+        }
+        heapNode.set(i, n);
+        heapF.set(i, f);
+    }
+
+    private int popHeap() {
+        int top = heapNode.get(0);
+        int n = heapNode.pop(), f = heapF.pop();
+        int size = heapNode.size;
+        if (size == 0) return top;
+        int i = 0;
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heapF.get(child + 1) < heapF.get(child)) child++;
+            if (heapF.get(child) >= f) break;
+            heapNode.set(i, heapNode.get(child));
+            heapF.set(i, heapF.get(child));
+            i = child;
+        }
+        heapNode.set(i, n);
+        heapF.set(i, f);
+        return top;
+    }
+
+    public TileMap getMap() {
+        return map;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getNodeCount() {
+        return liveNodes;
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public void clearCache() {
+        cache.clear();
+        cacheSize = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.CharArray;
+
+/**
+ * One piece of HUD text kept laid out in a BitmapFontCache. {@link #set} is
+ * meant to be called every frame with the current value; the glyphs are only
+ * laid out again when the text, position or alignment actually changes, so
+ * an unchanged HUD costs a vertex copy per text and no allocation.
+ */
+public class HudText {
+
+    private final BitmapFontCache cache;
+    private final CharArray text = new CharArray();
+    private GlyphLayout layout;
+    private float x, y;
+    private int align;
+    private boolean laidOut = false;
+
+    public HudText(BitmapFont font, float r, float g, float b, float a) {
+        cache = new BitmapFontCache(font, font.usesIntegerPositions());
+        cache.setColor(r, g, b, a);
+    }
+
+    /** Positions the text at x, y; with {@link Align#right} or {@link Align#center} x is its right edge or centre. */
+    public void set(CharSequence value, float x, float y, int align) {
+        if (laidOut && x == this.x && y == this.y && align == this.align && contentEquals(value)) return;
+
+        text.clear();
+        text.append(value);
+        this.x = x;
+        this.y = y;
+        this.align = align;
+        layout = cache.setText(text, x, y, 0f, align, false);
+        laidOut = true;
+    }
+
+    public void set(CharSequence value, float x, float y) {
+        set(value, x, y, Align.left);
+    }
+
+    public void draw(SpriteBatch batch) {
+        if (laidOut) cache.draw(batch);
+    }
+
+    public float getWidth() {
+        return laidOut ? layout.width : 0f;
+    }
+
+    public float getHeight() {
+        return laidOut ? layout.height : 0f;
+    }
+
+    private boolean contentEquals(CharSequence value) {
+        if (value.length() != text.length()) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (value.charAt(i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes PNG and JPG files into Pixmaps on a pool of worker threads and
+ * turns them into Textures on the render thread, which is the only part that
+ * needs the GL context.
+ *
+ * Finished decodes are uploaded by a runnable posted with
+ * {@link com.badlogic.gdx.Application#postRunnable}, or right away by
+ * {@link #finish} when the render thread has to wait for them anyway. Once
+ * every queued image is uploaded, the decode and upload times are logged:
+ * decode time summed over the workers against wall time shows how much the
+ * pool parallelised, upload time is what the render thread paid.
+ */
+public class ImageLoader {
+
+    public interface Callback {
+        /** Called on the render thread with the uploaded texture, which the callback now owns. */
+        void loaded(String path, Texture texture);
+    }
+
+    private static final class Decoded {
+        final String path;
+        final Pixmap pixmap;
+        final Pixmap.Format format;
+        final boolean mipMaps;
+        final Callback callback;
+
+        Decoded(String path, Pixmap pixmap, Pixmap.Format format, boolean mipMaps, Callback callback) {
+            this.path = path;
+            this.pixmap = pixmap;
+            this.format = format;
+            this.mipMaps = mipMaps;
+            this.callback = callback;
+        }
+    }
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final ConcurrentLinkedQueue<Decoded> decoded = new ConcurrentLinkedQueue<>();
+    private final Object lock = new Object();
+    // Queued but not yet uploaded; only touched on the render thread
+    private int pending = 0;
+    // Decodes still running, waited on by finish(); guarded by lock
+    private int decoding = 0;
+
+    // Timings of the current batch, reset when it has been logged
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private final AtomicLong lastDecodeEnd = new AtomicLong();
+    private long batchStart;
+    private long uploadNanos;
+    private int batchImages;
+
+    public ImageLoader() {
+        // Leave one core to the render thread
+        threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "image-decoder-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Called on the render thread. The callback runs on it later, see {@link Callback}. */
+    public void load(FileHandle file, Pixmap.Format format, boolean mipMaps, Callback callback) {
+        final String path = file.path();
+        if (pending == 0) batchStart = System.nanoTime();
+        pending++;
+        batchImages++;
+        synchronized (lock) {
+            decoding++;
+        }
+
+        workers.execute(() -> {
+            long start = System.nanoTime();
+            Pixmap pixmap = null;
+            try {
+                pixmap = new Pixmap(file);
+            } catch (RuntimeException e) {
+                Gdx.app.error("ImageLoader", "could not decode " + path, e);
+            }
+            long end = System.nanoTime();
+            decodeNanos.addAndGet(end - start);
+            lastDecodeEnd.accumulateAndGet(end, Math::max);
+
+            decoded.add(new Decoded(path, pixmap, format, mipMaps, callback));
+            synchronized (lock) {
+                decoding--;
+                lock.notifyAll();
+            }
+            Gdx.app.postRunnable(this::upload);
+        });
+    }
+
+    public void load(FileHandle file, Callback callback) {
+        load(file, null, false, callback);
+    }
+
+    /** Blocks the render thread until everything queued is decoded, then uploads it. */
+    public void finish() {
+        synchronized (lock) {
+            while (decoding > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        upload();
+    }
+
+    /** Uploads whatever has been decoded so far. Render thread only. */
+    private void upload() {
+        Decoded d;
+        while ((d = decoded.poll()) != null) {
+            pending--;
+            if (d.pixmap == null) continue;
+
+            long start = System.nanoTime();
+            Texture texture = new Texture(d.pixmap, d.format != null ? d.format : d.pixmap.getFormat(), d.mipMaps);
+            d.pixmap.dispose();
+            uploadNanos += System.nanoTime() - start;
+            d.callback.loaded(d.path, texture);
+        }
+        if (pending == 0 && batchImages > 0) logBatch();
+    }
+
+    private void logBatch() {
+        Gdx.app.log("ImageLoader", String.format("%d images on %d threads: decode %.1f ms total (%.1f ms wall), upload %.1f ms",
+            batchImages, threads, decodeNanos.get() / 1e6f, (lastDecodeEnd.get() - batchStart) / 1e6f, uploadNanos / 1e6f));
+        batchImages = 0;
+        uploadNanos = 0;
+        decodeNanos.set(0);
+        lastDecodeEnd.set(0);
+    }
+
+    public void dispose() {
+        workers.shutdownNow();
+        Decoded d;
+        while ((d = decoded.poll()) != null) {
+            if (d.pixmap != null) d.pixmap.dispose();
+        }
+    }
+}
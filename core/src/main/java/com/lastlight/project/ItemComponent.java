@@ -0,0 +1,15 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+
+/** An item lying on the floor, removed when the player picks it up. */
+public class ItemComponent implements Component, Pool.Poolable {
+
+    public ItemType type;
+
+    @Override
+    public void reset() {
+        type = null;
+    }
+}
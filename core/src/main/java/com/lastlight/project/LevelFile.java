@@ -0,0 +1,212 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.GridPoint2;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary level format, read through a read-only memory map.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * int   magic 'LLVL', int version
+ * int   width, int height (tiles)
+ * long  seed
+ * int   recordCount
+ * int[] recordStart, one per chunk plus an end marker (chunk-major, see ChunkedWorld)
+ * byte[CHUNK_SIZE * CHUNK_SIZE] tile plane of every chunk, padded with WALL at the map edge
+ * byte[3] placement records: marker, local x, local y, grouped by chunk
+ * </pre>
+ *
+ * Tiles and records are stored per chunk so loading a chunk is one
+ * contiguous block copy plus its own records, and nothing in the file is
+ * turned into objects until its chunk is streamed in. Chunk seeds are not
+ * stored: like every source, the file derives them from the level seed
+ * with {@link ChunkSource#chunkSeed}.
+ */
+public class LevelFile implements ChunkSource {
+
+    private static final int MAGIC = 0x4C4C564C; // "LLVL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 4;
+    private static final int SIZE = ChunkedWorld.CHUNK_SIZE;
+    private static final int BLOCK_BYTES = SIZE * SIZE;
+    private static final int RECORD_BYTES = 3;
+
+    private final MappedByteBuffer buffer;
+    private final int width, height;
+    private final long seed;
+    private final int chunksX, chunksY;
+    private final int indexOffset, tilesOffset, recordsOffset;
+
+    private final GridPoint2 spawnTile = new GridPoint2(1, 1);
+    private int generatorCount = 0;
+
+    private LevelFile(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC) throw new GdxRuntimeException("Not a Last Light level file");
+        int version = buffer.getInt(4);
+        if (version != VERSION) throw new GdxRuntimeException("Unsupported level version: " + version);
+
+        width = buffer.getInt(8);
+        height = buffer.getInt(12);
+        seed = buffer.getLong(16);
+        int recordCount = buffer.getInt(24);
+
+        chunksX = (width + SIZE - 1) / SIZE;
+        chunksY = (height + SIZE - 1) / SIZE;
+        int chunkCount = chunksX * chunksY;
+        indexOffset = HEADER_BYTES;
+        tilesOffset = indexOffset + (chunkCount + 1) * 4;
+        recordsOffset = tilesOffset + chunkCount * BLOCK_BYTES;
+
+        if (buffer.capacity() < recordsOffset + recordCount * RECORD_BYTES) {
+            throw new GdxRuntimeException("Truncated level file");
+        }
+
+        // One pass over the records for the level-wide facts
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int end = recordStart(chunk + 1);
+            for (int r = recordStart(chunk); r < end; r++) {
+                int at = recordsOffset + r * RECORD_BYTES;
+                byte marker = buffer.get(at);
+                if (marker == TileGrid.GENERATOR) {
+                    generatorCount++;
+                } else if (marker == TileGrid.PLAYER) {
+                    spawnTile.set((chunk % chunksX) * SIZE + buffer.get(at + 1),
+                        (chunk / chunksX) * SIZE + buffer.get(at + 2));
+                }
+            }
+        }
+    }
+
+    /** Maps a level file. The file is only read as chunks are loaded. */
+    public static LevelFile open(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new LevelFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't open level " + file, e);
+        }
+    }
+
+    /**
+     * Writes any chunk source to disk one chunk at a time, so huge facilities
+     * never need to be resident. {@code seed} must be the level seed the
+     * source derived its chunk seeds from.
+     */
+    public static void write(ChunkSource source, long seed, File file) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int chunksX = (width + SIZE - 1) / SIZE;
+        int chunksY = (height + SIZE - 1) / SIZE;
+        int chunkCount = chunksX * chunksY;
+        long tilesOffset = HEADER_BYTES + (chunkCount + 1) * 4L;
+
+        ByteBuffer index = ByteBuffer.allocate((chunkCount + 1) * 4);
+        ByteArray records = new ByteArray();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                index.putInt(records.size / RECORD_BYTES);
+                TileGrid tiles = source.loadChunk(chunk % chunksX, chunk / chunksX);
+                if (tiles.getSeed() != ChunkSource.chunkSeed(seed, chunk % chunksX, chunk / chunksX)) {
+                    throw new GdxRuntimeException("Level seed " + seed + " is not the seed of the source's chunks");
+                }
+
+                block.clear();
+                for (int ty = 0; ty < SIZE; ty++) {
+                    for (int tx = 0; tx < SIZE; tx++) {
+                        boolean inside = tx < tiles.getWidth() && ty < tiles.getHeight();
+                        block.put(inside ? tiles.getTile(tx, ty) : TileGrid.WALL);
+                        byte marker = inside ? tiles.getMarker(tx, ty) : TileGrid.NONE;
+                        if (marker != TileGrid.NONE) records.add(marker, (byte) tx, (byte) ty);
+                    }
+                }
+                block.flip();
+                writeFully(channel, block, tilesOffset + (long) chunk * BLOCK_BYTES);
+            }
+            int recordCount = records.size / RECORD_BYTES;
+            index.putInt(recordCount);
+            index.flip();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putLong(seed).putInt(recordCount);
+            header.flip();
+
+            writeFully(channel, header, 0);
+            writeFully(channel, index, HEADER_BYTES);
+            writeFully(channel, ByteBuffer.wrap(records.items, 0, records.size), tilesOffset + (long) chunkCount * BLOCK_BYTES);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't write level " + file, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) position += channel.write(data, position);
+    }
+
+    private int recordStart(int chunk) {
+        return buffer.getInt(indexOffset + chunk * 4);
+    }
+
+    @Override
+    public TileGrid loadChunk(int cx, int cy) {
+        int chunk = cy * chunksX + cx;
+        int w = Math.min(SIZE, width - cx * SIZE);
+        int h = Math.min(SIZE, height - cy * SIZE);
+
+        TileGrid tiles = new TileGrid(w, h);
+        tiles.setSeed(ChunkSource.chunkSeed(seed, cx, cy));
+
+        // Private view: the shared buffer's position must not be touched from the loader thread
+        ByteBuffer view = buffer.duplicate();
+        int blockStart = tilesOffset + chunk * BLOCK_BYTES;
+        for (int ty = 0; ty < h; ty++) {
+            view.position(blockStart + ty * SIZE);
+            tiles.readTileRow(ty, view, w);
+        }
+
+        int end = recordStart(chunk + 1);
+        for (int r = recordStart(chunk); r < end; r++) {
+            int at = recordsOffset + r * RECORD_BYTES;
+            tiles.setMarker(buffer.get(at + 1), buffer.get(at + 2), buffer.get(at));
+        }
+        return tiles;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public GridPoint2 getSpawnTile() {
+        return spawnTile;
+    }
+
+    @Override
+    public int getGeneratorCount() {
+        return generatorCount;
+    }
+}
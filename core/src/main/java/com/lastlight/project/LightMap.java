@@ -0,0 +1,116 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Light accumulated in a FrameBuffer at a fraction of the window size, then
+ * multiplied over the scene in one full-screen draw.
+ *
+ * Each light is a small radial gradient drawn additively, so any number of
+ * lights costs fill rate in the low-resolution buffer only, and lights whose
+ * bounds miss the camera are skipped before they reach the batch.
+ */
+public class LightMap {
+
+    private static final int GRADIENT_SIZE = 64;
+
+    private final FrameBuffer buffer;
+    private final TextureRegion bufferRegion;
+    private final Texture gradient;
+    private final Matrix4 screenProjection = new Matrix4();
+
+    private SpriteBatch batch;
+    private float viewX, viewY, viewW, viewH;
+    private int drawnLights;
+
+    public LightMap(int divisor) {
+        int d = Math.max(1, divisor);
+        buffer = new FrameBuffer(Pixmap.Format.RGBA8888, Math.max(1, Gdx.graphics.getWidth() / d),
+            Math.max(1, Gdx.graphics.getHeight() / d), false);
+        buffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        // FrameBuffer textures are upside down
+        bufferRegion = new TextureRegion(buffer.getColorBufferTexture());
+        bufferRegion.flip(false, true);
+
+        gradient = createGradient();
+    }
+
+    // Full brightness in the centre, linear falloff to black at the edge
+    private static Texture createGradient() {
+        Pixmap pm = new Pixmap(GRADIENT_SIZE, GRADIENT_SIZE, Pixmap.Format.RGBA8888);
+        float c = GRADIENT_SIZE / 2f;
+        for (int y = 0; y < GRADIENT_SIZE; y++) {
+            for (int x = 0; x < GRADIENT_SIZE; x++) {
+                float dx = x + 0.5f - c, dy = y + 0.5f - c;
+                float v = MathUtils.clamp(1f - (float) Math.sqrt(dx * dx + dy * dy) / c, 0f, 1f);
+                pm.setColor(v, v, v, 1f);
+                pm.drawPixel(x, y);
+            }
+        }
+        Texture t = new Texture(pm);
+        t.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        pm.dispose();
+        return t;
+    }
+
+    /** Starts accumulating lights for the camera's view. Unlit areas stay at the ambient colour. */
+    public void begin(SpriteBatch batch, OrthographicCamera camera, float ambientR, float ambientG, float ambientB) {
+        this.batch = batch;
+        viewW = camera.viewportWidth * camera.zoom;
+        viewH = camera.viewportHeight * camera.zoom;
+        viewX = camera.position.x - viewW / 2f;
+        viewY = camera.position.y - viewH / 2f;
+        drawnLights = 0;
+
+        buffer.begin();
+        Gdx.gl.glClearColor(ambientR, ambientG, ambientB, 1f);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        batch.setProjectionMatrix(camera.combined);
+        batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE);
+        batch.begin();
+    }
+
+    /** Adds a point light; it is skipped when its bounds miss the view. */
+    public void addLight(float x, float y, float radius, float r, float g, float b) {
+        if (x + radius < viewX || x - radius > viewX + viewW || y + radius < viewY || y - radius > viewY + viewH) return;
+        batch.setColor(r, g, b, 1f);
+        batch.draw(gradient, x - radius, y - radius, radius * 2f, radius * 2f);
+        drawnLights++;
+    }
+
+    public void end() {
+        batch.end();
+        buffer.end();
+        batch.setColor(1f, 1f, 1f, 1f);
+    }
+
+    /** Multiplies the accumulated light over everything drawn so far. */
+    public void composite() {
+        screenProjection.setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        batch.setProjectionMatrix(screenProjection);
+        batch.setBlendFunction(GL20.GL_DST_COLOR, GL20.GL_ZERO);
+        batch.begin();
+        batch.draw(bufferRegion, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        batch.end();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    /** Lights that passed the view test in the last pass. */
+    public int getDrawnLights() {
+        return drawnLights;
+    }
+
+    public void dispose() {
+        buffer.dispose();
+        gradient.dispose();
+    }
+}
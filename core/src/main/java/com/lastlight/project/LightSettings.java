@@ -0,0 +1,28 @@
+package com.lastlight.project;
+
+/**
+ * Lighting options picked at launch, so weaker machines can trade shadow
+ * quality for frame time.
+ */
+public class LightSettings {
+
+    public enum Mode {
+        /** Radial falloff around the player, walls do not cast shadows. */
+        SHADER,
+        /** box2dlights ray casting, walls cast shadows. */
+        RAYS,
+        /** Additive point lights in a low-resolution buffer, no shadows. */
+        LIGHTMAP
+    }
+
+    public Mode mode = Mode.SHADER;
+
+    /** Rays per light in RAYS mode. Fewer rays give blockier shadow edges. */
+    public int rays = 128;
+
+    /** In RAYS and LIGHTMAP mode the lightmap is rendered at window size divided by this, then scaled up. */
+    public int lightmapDivisor = 4;
+
+    /** Completed generators light up their surroundings. */
+    public boolean generatorGlow = true;
+}
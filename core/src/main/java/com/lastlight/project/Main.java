@@ -1,28 +1,48 @@
 package com.lastlight.project;
 
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.math.GridPoint2;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.CharArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
 
+import java.io.File;
 import java.util.ArrayList;
 
 public class Main extends ApplicationAdapter {
 
     private GameState gameState = GameState.MAIN_MENU;
+
+    // Fixed simulation step, see stepGame()
+    private static final float STEP = 1f / 120f;
+    private static final int MAX_STEPS_PER_FRAME = 12;
+    private float accumulator = 0f;
+    private float renderAlpha = 0f;
     ArrayList<Button> mainMenuButtons = new ArrayList<>();
     ArrayList<Button> pauseMenuButtons = new ArrayList<>();
     ArrayList<Button> endScreenButtons = new ArrayList<>();
+    private final GlyphLayout menuTitleLayout = new GlyphLayout();
+    private String menuTitle;
 
     // =====================
     // HUD / Instructions
@@ -30,61 +50,77 @@ public class Main extends ApplicationAdapter {
     private final String controlInstructions = "Controls: LMB - Flashlight | F - Interact | Shift - Sprint | 1-3 - Use Item";
     private String objectiveInstruction = "Finish all generators!";
 
+    // Laid-out HUD text, re-laid out only when the value changes
+    private static final String[] SLOT_LABELS = {"1", "2", "3"};
+    private final CharArray hudBuilder = new CharArray();
+    private HudText controlsText, generatorText, objectiveText, itemMessageText;
+    private HudText shieldStatusText, speedStatusText;
+    private HudText[] slotTexts, introTexts;
+    private HudText loadingText;
+
     // ======================
     // CORE RENDERING
     // ======================
     private SpriteBatch batch;
-    private ShapeRenderer shapeRenderer;
+    private ChunkTileCache tileCache;
+    private GLProfiler profiler;
+    private float profilerLogTimer = 0f;
+    // Counters at the last profiler log, so each log shows the last second
+    private int profiledFovComputes = 0;
+    private int profiledFieldComputes = 0;
     private OrthographicCamera camera, hudCamera;
 
     // ======================
     // TEXTURES
     // ======================
-    private Texture wallTexture, floorTexture, trapTexture, droneTexture, playerTexture;
-    private Texture generatorTexture, doorClosedTexture, doorOpenTexture;
-    private Texture shieldTexture, sodaTexture, batteryTexture;
-    private ArrayList<Item> items = new ArrayList<>();
+    // Loaded per game state, see GameAssets
+    private GameAssets assets;
+    // Sprites share one atlas page, so the world and the hotbar draw without texture switches
+    private TextureAtlas atlas;
+    // Entity sprites are looked up by the EntityFactory
+    private TextureRegion wallTexture, floorTexture;
+    private TextureRegion shieldTexture, sodaTexture, batteryTexture;
+    private TextureRegion whitePixel;
 
-    private Texture lightMask;
-    private Texture victoryTexture, gameOverTexture;
+    private final LightSettings lightSettings;
+    private DarknessPass darkness;
+    private RayLighting rayLighting; // only in LightSettings.Mode.RAYS
+    private LightMap lightMap;       // only in LightSettings.Mode.LIGHTMAP
+    private final Array<Entity> litGenerators = new Array<>();
+    private final Array<Entity> litDoors = new Array<>();
+    private final Array<Entity> visibleGenerators = new Array<>();
 
     // ======================
     // AUDIO
     // ======================
-    private Sound lightExpandSound, lightShrinkSound, generatorFixSound, doorOpenSound, victorySound, defeatSound, itemPickupSound;
+    private AudioService audio;
 
     // ======================
     // ENTITIES
     // ======================
-    private Player player;
-    private final ArrayList<Drone> drones = new ArrayList<>();
-    private final ArrayList<Trap> traps = new ArrayList<>();
-    private final ArrayList<Generator> generators = new ArrayList<>();
-    private final ArrayList<Door> doors = new ArrayList<>();
+    // Components and systems, see Simulation for the order they run in
+    private Simulation simulation;
+    private RenderSystem renderSystem;
+    private SwarmRenderSystem swarmRenderer;
+    private ProgressBarSystem progressBars;
+    // Everything a chunk eviction can suspend: all entities but the player
+    private ImmutableArray<Entity> chunkEntities;
+
+    // The player's entity is recreated by resetWorld()
+    private PlayerComponent player;
+    private TransformComponent playerTransform;
+    // Drawn between the last two simulation states
+    private final Vector2 playerRenderPosition = new Vector2();
 
     // ======================
     // GAME CONSTANTS
     // ======================
     private final float tileSize = 64f;
 
-    private final float minLightRadius = 128f;
-    private final float maxLightRadius = 512f;
-    private float currentLightRadius = minLightRadius;
-    private final float lightGrowSpeed = 64f;
-    private final float lightShrinkSpeed = 64f;
-
-    private static final float batteryDrainRate = 10f;     
-    private static final float batteryRechargeRate = 20f;  
-    private boolean flashlightLocked = false;
-    private float flashlightLockTimer = 0f;
-    private final float flashlightLockDuration = 2f;
-
     // ======================
     // GAME STATE
     // ======================
     private BitmapFont font;
-    private boolean wasLightHeld = false;
-    private int lastCompletedGenerators = 0;
 
     // ======================
     // INTRO SEQUENCE
@@ -96,7 +132,6 @@ public class Main extends ApplicationAdapter {
     };
     private int currentIntroLine = 0;
     private float introTimer = 0f;
-    private Sound beepSound;
     private final float lineInterval = 3f;
     private float postIntroTimer = 0f;
     private final float postIntroDelay = 5f;
@@ -111,9 +146,43 @@ public class Main extends ApplicationAdapter {
     // ======================
     // MAP
     // ======================
-    private String[][] map = generateMap();
+    private final MapGenerator mapGenerator = new MapGenerator(20, 20, 4, 3, 5, 5);
+    private MapPool mapPool;
+
+    // Facility size in chunks per side; 0 plays the classic map from the pool
+    private final int facilityChunks;
+    // Saved level to play instead of a generated one
+    private final String levelPath;
+    // Swarm mode: every drone marker releases this many swarm drones instead of one drone
+    private final int swarmDrones;
+    private static final int SWARM_SPAWN_CLEARANCE = 4; // tiles kept clear around the player's spawn
+    private LevelFile level;
+    private ChunkedWorld world;
+    private ChunkSource worldSource;
+    private final IntSet spawnedChunks = new IntSet();
+    private final IntMap<ChunkEntities> suspendedChunks = new IntMap<>();
+
+    // Tiles the player can see, refreshed when their tile or the light radius changes
+    private final FieldOfView fieldOfView = new FieldOfView();
+
+    // Visible tile range, refreshed by updateCamera()
+    private int viewMinTx, viewMinTy, viewMaxTx, viewMaxTy;
 
-    private int totalGenerators;
+    // Reset timing, logged after every resetWorld()
+    private int resetCount = 0;
+    private long totalResetNanos = 0;
+    private long maxResetNanos = 0;
+
+    public Main() {
+        this(0, null, new LightSettings(), 0);
+    }
+
+    public Main(int facilityChunks, String levelPath, LightSettings lightSettings, int swarmDrones) {
+        this.facilityChunks = facilityChunks;
+        this.levelPath = levelPath;
+        this.lightSettings = lightSettings;
+        this.swarmDrones = swarmDrones;
+    }
 
     // ======================
     // CREATE
@@ -121,7 +190,6 @@ public class Main extends ApplicationAdapter {
     @Override
     public void create() {
         batch = new SpriteBatch();
-        shapeRenderer = new ShapeRenderer();
 
         camera = new OrthographicCamera(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         camera.zoom = 1f; // adjust if needed
@@ -133,55 +201,119 @@ public class Main extends ApplicationAdapter {
 
         font = new BitmapFont();
         font.setColor(1, 1, 0, 1);
+        createHudText();
 
+        profiler = new GLProfiler(Gdx.graphics);
+        assets = new GameAssets();
+        assets.loadMenu();
         loadTextures();
-        loadSounds();
-        lightMask = createRadialLightMask(4096, minLightRadius);
+        // Positional sounds fade out over about one screen
+        audio = new AudioService(assets, tileSize * 12f, tileSize * 8f);
+        tileCache = new ChunkTileCache(wallTexture, floorTexture, tileSize);
+        darkness = new DarknessPass();
+        if (lightSettings.mode == LightSettings.Mode.RAYS) rayLighting = new RayLighting(lightSettings, tileSize);
+        if (lightSettings.mode == LightSettings.Mode.LIGHTMAP) lightMap = new LightMap(lightSettings.lightmapDivisor);
+
+        if (levelPath != null) {
+            level = LevelFile.open(new File(levelPath));
+        } else if (facilityChunks == 0) {
+            mapPool = new MapPool(mapGenerator, 2);
+            mapPool.start();
+        }
+        world = new ChunkedWorld(new ChunkedWorld.Listener() {
+            @Override
+            public void chunkLoaded(Chunk chunk) {
+                onChunkLoaded(chunk);
+            }
 
-        spawnEntities();
+            @Override
+            public void chunkEvicted(Chunk chunk) {
+                onChunkEvicted(chunk);
+            }
+        });
+        createSimulation();
+        resetWorld();
 
         setupMenus();
+    }
+
+    private void createHudText() {
+        controlsText = new HudText(font, 1, 1, 1, 1);
+        generatorText = new HudText(font, 1, 1, 1, 1);
+        objectiveText = new HudText(font, 1, 1, 1, 1);
+        itemMessageText = new HudText(font, 1, 1, 0, 1);
+        shieldStatusText = new HudText(font, 1, 1, 0, 1); // yellow for active status
+        speedStatusText = new HudText(font, 1, 1, 0, 1);
+        slotTexts = new HudText[SLOT_LABELS.length];
+        for (int i = 0; i < slotTexts.length; i++) slotTexts[i] = new HudText(font, 1, 1, 1, 1);
+        loadingText = new HudText(font, 1, 1, 1, 1);
+        introTexts = new HudText[introLines.length];
+        for (int i = 0; i < introTexts.length; i++) introTexts[i] = new HudText(font, 1, 1, 0, 1);
+    }
+
+    private void createSimulation() {
+        simulation = new Simulation(world, tileSize, atlas, audio, new Simulation.Listener() {
+            @Override
+            public void generatorCompleted(Entity generator) {
+            }
+
+            @Override
+            public void doorOpened(Entity door) {
+                // An opened door only has to free its own cell
+                Vector2 position = Mappers.transform.get(door).position;
+                setObstacle(position, false);
+                simulation.navigation.tileChanged((int) (position.x / tileSize), (int) (position.y / tileSize));
+            }
+
+            @Override
+            public void playerCaught() {
+                triggerGameOver();
+            }
+
+            @Override
+            public void playerEscaped() {
+                if (gameState != GameState.PLAYING) return;
+                gameState = GameState.WIN;
+                audio.play(AudioService.Clip.VICTORY, 0.8f);
+            }
+
+            @Override
+            public void itemPicked(ItemType type) {
+                switch (type) {
+                    case BATTERY:
+                        itemMessage = "Battery: Refills flashlight!";
+                        break;
+                    case SHIELD:
+                        itemMessage = "Shield: Invulnerability for 5 seconds!";
+                        break;
+                    case SODA:
+                        itemMessage = "Soda: Speed boost for 10 seconds!";
+                        break;
+                }
+                itemMessageTimer = itemMessageDuration; // reset timer
+            }
+        });
+        chunkEntities = simulation.engine.getEntitiesFor(
+            Family.all(TransformComponent.class).exclude(PlayerComponent.class, SuspendedComponent.class).get());
 
-        totalGenerators = generators.size();
+        // Drawn once per frame by renderGame(), not by the engine's update
+        renderSystem = new RenderSystem(batch, camera, simulation.broadphase, fieldOfView, tileSize);
+        swarmRenderer = new SwarmRenderSystem(simulation.swarm, batch, camera, fieldOfView, atlas.findRegion("Drone"), tileSize);
+        progressBars = new ProgressBarSystem(batch, camera, whitePixel);
+        simulation.engine.addSystem(renderSystem);
+        simulation.engine.addSystem(swarmRenderer);
+        simulation.engine.addSystem(progressBars);
     }
 
     private void loadTextures() {
-        wallTexture = new Texture("Wall.png");
-        floorTexture = new Texture("Floor.png");
-        trapTexture = new Texture("Trap.png");
-        droneTexture = new Texture("Drone.png");
-        playerTexture = new Texture("Player.png");
-        generatorTexture = new Texture("Generator.png");
-        doorClosedTexture = new Texture("DoorClosed.png");
-        doorOpenTexture = new Texture("DoorOpen.png");
-        victoryTexture = new Texture("VictoryScreen.jpg");
-        gameOverTexture = new Texture("GameOverScreen.jpg");
-        shieldTexture = new Texture("Shield.png");
-        sodaTexture = new Texture("Soda.png");
-        batteryTexture = new Texture("Battery.png");
-
-        wallTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        floorTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        trapTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        droneTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        playerTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        generatorTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        doorClosedTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        doorOpenTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        shieldTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        sodaTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        batteryTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-    }
-
-    private void loadSounds() {
-        lightExpandSound = Gdx.audio.newSound(Gdx.files.internal("light_on.mp3"));
-        lightShrinkSound = Gdx.audio.newSound(Gdx.files.internal("light_off.mp3"));
-        generatorFixSound = Gdx.audio.newSound(Gdx.files.internal("generator_fix.mp3"));
-        doorOpenSound = Gdx.audio.newSound(Gdx.files.internal("door_open.mp3"));
-        victorySound = Gdx.audio.newSound(Gdx.files.internal("victory.mp3"));
-        defeatSound = Gdx.audio.newSound(Gdx.files.internal("defeat.mp3"));
-        beepSound = Gdx.audio.newSound(Gdx.files.internal("beep.mp3"));
-        itemPickupSound = Gdx.audio.newSound(Gdx.files.internal("pick.mp3"));
+        // Packed by the packTextures Gradle task from assets-raw/sprites
+        atlas = assets.getAtlas();
+        wallTexture = atlas.findRegion("Wall");
+        floorTexture = atlas.findRegion("Floor");
+        shieldTexture = atlas.findRegion("Shield");
+        sodaTexture = atlas.findRegion("Soda");
+        batteryTexture = atlas.findRegion("Battery");
+        whitePixel = atlas.findRegion("white");
     }
 
     // ======================
@@ -193,6 +325,15 @@ public class Main extends ApplicationAdapter {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
         float delta = Gdx.graphics.getDeltaTime();
+        updateProfiler(delta);
+        audio.update(delta);
+        assets.update(gameState);
+
+        // The intro and the game wait for the sounds that stream in behind the menu
+        if ((gameState == GameState.INTRO || gameState == GameState.PLAYING) && !assets.isGameplayLoaded()) {
+            renderLoading();
+            return;
+        }
 
         switch(gameState){
             case MAIN_MENU:
@@ -205,7 +346,7 @@ public class Main extends ApplicationAdapter {
                 break;
 
             case PLAYING:
-                updateGame(delta);
+                stepGame(delta);
                 renderGame();
                 if(Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)){
                     gameState = GameState.PAUSED;
@@ -230,121 +371,70 @@ public class Main extends ApplicationAdapter {
         }
 
     // ======================
-    // DOOR LOGIC
+    // PROFILING
     // ======================
-    private void updateDoors() {
-        boolean allGeneratorsDone = getCompletedGenerators() == totalGenerators;
-        float delta = Gdx.graphics.getDeltaTime();
-
-        for (Door d : doors) {
-            // Doors become interactable only after all generators done
-            d.setOpenable(allGeneratorsDone);
-
-            // Update progress if player is near and pressing action
-            if (d.isOpenable() && !d.isOpen() && player.getInteractingDoor() == d) {
-                d.progress(delta);
-
-                // Play sound when door just opens
-                if (d.isOpen()) {
-                    doorOpenSound.play(0.8f);
-                }
-            }
+    // F3 toggles GL counters; the previous frame's numbers are logged once a second,
+    // with the work the game did over that second
+    private void updateProfiler(float delta) {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            if (profiler.isEnabled()) profiler.disable();
+            else profiler.enable();
+            profilerLogTimer = 0f;
+            profiledFovComputes = fieldOfView.getComputeCount();
+            profiledFieldComputes = flowFieldComputes();
         }
-    }
+        if (!profiler.isEnabled()) return;
 
+        profilerLogTimer += delta;
+        if (profilerLogTimer >= 1f) {
+            profilerLogTimer = 0f;
+            Gdx.app.log("GLProfiler", String.format("draw calls %d, texture bindings %d, shader switches %d, vertices %.0f",
+                profiler.getDrawCalls(), profiler.getTextureBindings(), profiler.getShaderSwitches(), profiler.getVertexCount().latest));
 
-    private void checkPlayerOnDoors() {
-        if (gameState != GameState.PLAYING) return;
-
-        for (Door d : doors) {
-            if (d.isOpen() && isPlayerOnDoor(d)) {
-                gameState = GameState.WIN;
-                victorySound.play(0.8f);
-                break;
-            }
+            int fovComputes = fieldOfView.getComputeCount();
+            int fieldComputes = flowFieldComputes();
+            Gdx.app.log("Profiler", String.format("field of view recomputed %d times, flow fields %d times, %d voices playing",
+                fovComputes - profiledFovComputes, fieldComputes - profiledFieldComputes, audio.getActiveVoices()));
+            profiledFovComputes = fovComputes;
+            profiledFieldComputes = fieldComputes;
         }
+        profiler.reset();
     }
 
-    private boolean isPlayerOnDoor(Door door) {
-        float px = player.position.x + player.size / 2f;
-        float py = player.position.y + player.size / 2f;
-        float dx = door.position.x;
-        float dy = door.position.y;
-
-        return px > dx && px < dx + door.size && py > dy && py < dy + door.size;
+    private int flowFieldComputes() {
+        return simulation.navigation.chase.getComputeCount() + simulation.navigation.patrol.getComputeCount();
     }
 
     // ======================
     // RENDER HELPERS
     // ======================
     private void renderWorld() {
+        // Walls and floors come from the per-chunk caches
+        tileCache.render(camera.combined, world.getResidentChunks(), viewMinTx, viewMinTy, viewMaxTx, viewMaxTy);
+
         batch.setProjectionMatrix(camera.combined);
         batch.begin();
-        for (int y = 0; y < map.length; y++) {
-            for (int x = 0; x < map[y].length; x++) {
-                Texture t = map[y][x].equals("W") ? wallTexture : floorTexture;
-                batch.draw(t, x * tileSize, (map.length - y - 1) * tileSize, tileSize, tileSize);
-            }
-        }
-        for (Generator g : generators) g.render(batch);
-        for (Door d : doors) d.render(batch);
-        for (Trap t : traps) t.render(batch);
-        for (Drone d : drones) d.render(batch);
-        for (Item item : items) item.render(batch);
-        player.render(batch);
+        renderSystem.render(renderAlpha);
+        swarmRenderer.render(renderAlpha);
         batch.end();
     }
 
     private void renderProgressBars() {
-        shapeRenderer.setProjectionMatrix(camera.combined);
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-
-        boolean allGeneratorsDone = getCompletedGenerators() == totalGenerators;
-
-        // Generators
-        for (Generator g : generators) g.renderProgressBar(shapeRenderer);
-
-        // Doors
-        for (Door d : doors) d.renderProgressBar(shapeRenderer);
+        batch.setProjectionMatrix(camera.combined);
 
-        shapeRenderer.end();
+        progressBars.render(renderSystem.getVisible());
     }
 
     private void renderHUD() {
         batch.setProjectionMatrix(hudCamera.combined);
-        batch.begin();
 
-        // --- Top Left: Controls ---
-        font.setColor(1, 1, 1, 1);
-        font.draw(batch, controlInstructions, 20, Gdx.graphics.getHeight() - 20);
-
-        // --- Top Right: Generator Counter ---
-        String genText = "Generators: " + getCompletedGenerators() + "/" + totalGenerators;
-        GlyphLayout gl = new GlyphLayout(font, genText);
-        font.draw(batch, genText, Gdx.graphics.getWidth() - gl.width - 20, Gdx.graphics.getHeight() - 20);
-
-        // --- Top Right: Objective Instructions ---
-        if (getCompletedGenerators() < totalGenerators) {
-            objectiveInstruction = "Finish all generators!";
-        } else {
-            objectiveInstruction = "Exits can now be interacted, open them and escape!";
-        }
-
-        GlyphLayout gl2 = new GlyphLayout(font, objectiveInstruction);
-        font.draw(batch, objectiveInstruction,
-                Gdx.graphics.getWidth() - gl2.width - 20,
-                Gdx.graphics.getHeight() - 40); // slightly below generator counter
-
-        batch.end();
+        // Atlas regions first, then all text, so the pass only switches texture once
 
         // --- Battery bar ---
-        shapeRenderer.setProjectionMatrix(hudCamera.combined);
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(0.3f, 0.3f, 0.3f, 1);
-        shapeRenderer.rect(20, 20, 150, 15);
-        shapeRenderer.setColor(0.2f, 1f, 0.2f, 1);
-        shapeRenderer.rect(20, 20, 150 * (player.getBattery() / 100f), 15);
-        shapeRenderer.end();
+        batch.setColor(0.3f, 0.3f, 0.3f, 1);
+        batch.draw(whitePixel, 20, 20, 150, 15);
+        batch.setColor(0.2f, 1f, 0.2f, 1);
+        batch.draw(whitePixel, 20, 20, 150 * (player.battery / PlayerComponent.MAX_BATTERY), 15);
 
         // --- Hotbar ---
         float slotSize = 48f * (Gdx.graphics.getHeight() / 480f); 
@@ -352,36 +442,17 @@ public class Main extends ApplicationAdapter {
         float startX = (Gdx.graphics.getWidth() - (slotSize * 3 + spacing * 2)) / 2f;
         float hotbarY = 20 * (Gdx.graphics.getHeight() / 480f); // hotbar bottom
 
-        // --- Item message above hotbar ---
-        if (!itemMessage.isEmpty()) {
-            GlyphLayout layout = new GlyphLayout(font, itemMessage);
-            float x = (Gdx.graphics.getWidth() - layout.width) / 2f; // center horizontally
-            float y = hotbarY + slotSize + 8f + layout.height; // top of hotbar + padding + text height
-            font.setColor(1, 1, 0, 1);
-            batch.begin();
-            font.draw(batch, layout, x, y);
-            batch.end();
-        }
-
-        // --- Hotbar slots ---
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        // --- Hotbar slots (same green as the battery bar) ---
         for (int i = 0; i < 3; i++) {
-            shapeRenderer.rect(startX + i * (slotSize + spacing), hotbarY, slotSize, slotSize);
+            drawOutline(startX + i * (slotSize + spacing), hotbarY, slotSize, slotSize);
         }
-        shapeRenderer.end();
+        batch.setColor(Color.WHITE);
 
-        // --- Hotbar numbers & icons inside slots ---
-        batch.begin();
+        // --- Hotbar icons inside slots ---
         for (int i = 0; i < 3; i++) {
-            // Draw slot number near bottom
-            font.setColor(1, 1, 1, 1);
-            font.draw(batch, String.valueOf(i + 1),
-                startX + i * (slotSize + spacing) + slotSize / 2f - 4,
-                hotbarY + 15);
-
             // Draw icon centered in slot
-            ItemType item = player.getItem(i);
-            Texture icon = null;
+            ItemType item = player.inventory[i];
+            TextureRegion icon = null;
             if (item != null) {
                 switch (item) { // classic Java 11 switch
                     case SHIELD:
@@ -406,204 +477,248 @@ public class Main extends ApplicationAdapter {
             }
         }
 
-        // --- Status Effects (Right side) ---
-        float statusX = Gdx.graphics.getWidth() - 20; // margin from right
-        float statusY = Gdx.graphics.getHeight() - 80; // starting slightly below top
-
-        font.setColor(1, 1, 0, 1); // yellow for active status
+        // --- Top Left: Controls ---
+        controlsText.set(controlInstructions, 20, Gdx.graphics.getHeight() - 20);
+        controlsText.draw(batch);
 
-        if (player.isShieldActive()) {
-            String shieldText = "Invulnerable";
-            GlyphLayout layout = new GlyphLayout(font, shieldText);
-            font.draw(batch, shieldText, statusX - layout.width, statusY);
-            statusY -= layout.height + 5; // move down for next status
-        }
+        // --- Top Right: Generator Counter ---
+        hudBuilder.clear();
+        hudBuilder.append("Generators: ").append(simulation.objectives.getCompletedGenerators())
+            .append('/').append(simulation.objectives.getTotalGenerators());
+        generatorText.set(hudBuilder, Gdx.graphics.getWidth() - 20, Gdx.graphics.getHeight() - 20, Align.right);
+        generatorText.draw(batch);
 
-        if (player.isSpeedBoostActive()) {
-            String speedText = "Speed";
-            GlyphLayout layout = new GlyphLayout(font, speedText);
-            font.draw(batch, speedText, statusX - layout.width, statusY);
+        // --- Top Right: Objective Instructions ---
+        if (!simulation.objectives.isAllGeneratorsDone()) {
+            objectiveInstruction = "Finish all generators!";
+        } else {
+            objectiveInstruction = "Exits can now be interacted, open them and escape!";
         }
 
-        batch.end();
-    }
+        objectiveText.set(objectiveInstruction,
+                Gdx.graphics.getWidth() - 20,
+                Gdx.graphics.getHeight() - 40, Align.right); // slightly below generator counter
+        objectiveText.draw(batch);
 
-    private void renderDarkness() {
-        batch.setBlendFunction(GL20.GL_ZERO, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        batch.begin();
-
-        float scale = currentLightRadius / maxLightRadius;
-        float w = lightMask.getWidth() * scale * 2f;
-        float h = lightMask.getHeight() * scale * 2f;
+        // --- Item message above hotbar ---
+        if (!itemMessage.isEmpty()) {
+            float x = Gdx.graphics.getWidth() / 2f; // center horizontally
+            float y = hotbarY + slotSize + 8f + font.getCapHeight(); // top of hotbar + padding + text height
+            itemMessageText.set(itemMessage, x, y, Align.center);
+            itemMessageText.draw(batch);
+        }
 
-        float x = player.position.x + player.size / 2f - w / 2f;
-        float y = player.position.y + player.size / 2f - h / 2f;
+        // --- Hotbar numbers, drawn near the bottom of each slot ---
+        for (int i = 0; i < 3; i++) {
+            slotTexts[i].set(SLOT_LABELS[i],
+                startX + i * (slotSize + spacing) + slotSize / 2f - 4,
+                hotbarY + 15);
+            slotTexts[i].draw(batch);
+        }
 
-        batch.draw(lightMask, x, y, w, h);
-        batch.end();
-        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-    }
+        // --- Status Effects (Right side) ---
+        float statusX = Gdx.graphics.getWidth() - 20; // margin from right
+        float statusY = Gdx.graphics.getHeight() - 80; // starting slightly below top
 
-    // ======================
-    // FLASHLIGHT
-    // ======================
-    private void updateFlashlight(float delta) {
-        if (flashlightLocked) {
-            flashlightLockTimer -= delta;
-            if (flashlightLockTimer <= 0) flashlightLocked = false;
+        if (player.shieldActive) {
+            shieldStatusText.set("Invulnerable", statusX, statusY, Align.right);
+            shieldStatusText.draw(batch);
+            statusY -= shieldStatusText.getHeight() + 5; // move down for next status
         }
 
-        boolean held = Gdx.input.isButtonPressed(Input.Buttons.LEFT);
-
-        if (!flashlightLocked && held && player.getBattery() > 0) {
-            currentLightRadius = Math.min(maxLightRadius, currentLightRadius + lightGrowSpeed * delta);
-            player.drainBattery(batteryDrainRate * delta);
-            if (player.getBattery() <= 0) {
-                flashlightLocked = true;
-                flashlightLockTimer = flashlightLockDuration;
-            }
-        } else {
-            currentLightRadius = Math.max(minLightRadius, currentLightRadius - lightShrinkSpeed * delta);
-            if (!flashlightLocked)
-                player.rechargeBattery(batteryRechargeRate * delta);
+        if (player.speedBoostActive) {
+            speedStatusText.set("Speed", statusX, statusY, Align.right);
+            speedStatusText.draw(batch);
         }
+    }
 
-        if (held && !wasLightHeld) lightExpandSound.play(0.5f);
-        if (!held && wasLightHeld) lightShrinkSound.play(0.4f);
-        wasLightHeld = held;
+    /** One pixel wide rectangle outline in the current batch colour. */
+    private void drawOutline(float x, float y, float w, float h) {
+        batch.draw(whitePixel, x, y, w, 1);
+        batch.draw(whitePixel, x, y + h - 1, w, 1);
+        batch.draw(whitePixel, x, y + 1, 1, h - 2);
+        batch.draw(whitePixel, x + w - 1, y + 1, 1, h - 2);
     }
 
-    private void updateProgressSounds() {
-        int completed = getCompletedGenerators();
-        if (completed > lastCompletedGenerators) generatorFixSound.play(0.7f);
-        lastCompletedGenerators = completed;
+    private void renderDarkness() {
+        float lightX = playerRenderPosition.x + playerTransform.size / 2f;
+        float lightY = playerRenderPosition.y + playerTransform.size / 2f;
+        float viewW = camera.viewportWidth * camera.zoom;
+        float viewH = camera.viewportHeight * camera.zoom;
+        if (rayLighting != null) {
+            visibleGenerators.clear();
+            simulation.broadphase.generators.queryAabb(camera.position.x - viewW / 2f, camera.position.y - viewH / 2f,
+                viewW, viewH, visibleGenerators);
+            rayLighting.render(camera, lightX, lightY, player.lightRadius / 2f, visibleGenerators);
+            return;
+        }
+        if (lightMap != null) {
+            renderLightMap();
+            return;
+        }
+
+        // Same falloff as the old 4096px mask: fully dark at half the light radius
+        darkness.render(batch, whitePixel, lightX, lightY, player.lightRadius / 2f,
+            camera.position.x - viewW / 2f, camera.position.y - viewH / 2f, viewW, viewH);
+    }
+
+    private void renderLightMap() {
+        float generatorRadius = tileSize * 2f;
+        float doorRadius = tileSize * 1.5f;
+
+        // Lights can reach into the view from entities just outside it
+        float viewW = camera.viewportWidth * camera.zoom;
+        float viewH = camera.viewportHeight * camera.zoom;
+        float viewX = camera.position.x - viewW / 2f - generatorRadius;
+        float viewY = camera.position.y - viewH / 2f - generatorRadius;
+        litGenerators.clear();
+        simulation.broadphase.generators.queryAabb(viewX, viewY, viewW + generatorRadius * 2f, viewH + generatorRadius * 2f, litGenerators);
+        litDoors.clear();
+        simulation.broadphase.doors.queryAabb(viewX, viewY, viewW + generatorRadius * 2f, viewH + generatorRadius * 2f, litDoors);
+
+        lightMap.begin(batch, camera, 0f, 0f, 0f);
+        // Same falloff as the shader darkness: black at half the light radius
+        lightMap.addLight(playerRenderPosition.x + playerTransform.size / 2f, playerRenderPosition.y + playerTransform.size / 2f,
+            player.lightRadius / 2f, 1f, 1f, 1f);
+        if (lightSettings.generatorGlow) {
+            for (int i = 0; i < litGenerators.size; i++) {
+                Entity g = litGenerators.get(i);
+                if (!Mappers.generator.get(g).completed) continue;
+                TransformComponent t = Mappers.transform.get(g);
+                lightMap.addLight(t.getCenterX(), t.getCenterY(), generatorRadius, 0.2f, 0.9f, 0.2f);
+            }
+        }
+        for (int i = 0; i < litDoors.size; i++) {
+            Entity d = litDoors.get(i);
+            if (!Mappers.door.get(d).open) continue;
+            TransformComponent t = Mappers.transform.get(d);
+            lightMap.addLight(t.getCenterX(), t.getCenterY(), doorRadius, 0.8f, 0.9f, 1f);
+        }
+        lightMap.end();
+        lightMap.composite();
     }
 
     // ======================
     // CAMERA
     // ======================
     private void updateCamera() {
-        camera.position.set(player.position.x + player.size / 2f, player.position.y + player.size / 2f, 0);
+        camera.position.set(playerRenderPosition.x + playerTransform.size / 2f, playerRenderPosition.y + playerTransform.size / 2f, 0);
         float hw = camera.viewportWidth * camera.zoom / 2f;
         float hh = camera.viewportHeight * camera.zoom / 2f;
-        camera.position.x = MathUtils.clamp(camera.position.x, hw, map[0].length * tileSize - hw);
-        camera.position.y = MathUtils.clamp(camera.position.y, hh, map.length * tileSize - hh);
+        camera.position.x = MathUtils.clamp(camera.position.x, hw, world.getWidth() * tileSize - hw);
+        camera.position.y = MathUtils.clamp(camera.position.y, hh, world.getHeight() * tileSize - hh);
         camera.update();
+
+        viewMinTx = MathUtils.floor((camera.position.x - hw) / tileSize);
+        viewMinTy = MathUtils.floor((camera.position.y - hh) / tileSize);
+        viewMaxTx = MathUtils.floor((camera.position.x + hw) / tileSize);
+        viewMaxTy = MathUtils.floor((camera.position.y + hh) / tileSize);
     }
 
     // ======================
-    // ENTITY SPAWN
+    // WORLD STREAMING
     // ======================
-    private void spawnEntities() {
-        for (int y = 0; y < map.length; y++) {
-            for (int x = 0; x < map[y].length; x++) {
-                String tile = map[y][x];
-                Vector2 pos = new Vector2(x * tileSize, (map.length - y - 1) * tileSize);
+    private void updateWorldStreaming() {
+        world.update(viewMinTx, viewMinTy, viewMaxTx, viewMaxTy);
+    }
 
-                switch (tile) {
-                    case "P":
-                        player = new Player(pos, playerTexture, tileSize);
-                        break;
-                    case "D":
-                        drones.add(new Drone(pos, droneTexture, tileSize));
-                        break;
-                    case "T":
-                        traps.add(new Trap(pos, trapTexture, tileSize));
-                        break;
-                    case "G":
-                        generators.add(new Generator(pos, generatorTexture, tileSize));
-                        break;
-                    case "I":
-                        ItemType randomType = ItemType.values()[MathUtils.random(ItemType.values().length - 1)];
-                        items.add(new Item(pos, getItemTexture(randomType), randomType, tileSize));
-                        break;
-                    case "E":
-                        doors.add(new Door(pos, doorClosedTexture, doorOpenTexture, tileSize));
-                        break;
-                }
+    private void onChunkLoaded(Chunk chunk) {
+        tileCache.build(chunk);
+        fieldOfView.invalidate();
+        if (rayLighting != null) rayLighting.chunkLoaded(chunk);
+
+        ChunkEntities suspended = suspendedChunks.remove(chunk.key);
+        if (suspended != null) {
+            suspended.resume(simulation.swarm);
+
+            // The chunk was reloaded from its source, so bake its obstacles again
+            for (int i = 0; i < suspended.entities.size; i++) {
+                Entity e = suspended.entities.get(i);
+                if (Mappers.generator.has(e)) setObstacle(Mappers.transform.get(e).position, true);
+                if (Mappers.door.has(e)) setObstacle(Mappers.transform.get(e).position, !Mappers.door.get(e).open);
             }
+        } else if (spawnedChunks.add(chunk.key)) {
+            // First visit spawns from the markers; revisits of empty chunks spawn nothing
+            spawnEntities(chunk);
         }
+        // With its obstacles baked
+        simulation.navigation.regionChanged(chunk.originX, chunk.originY, chunk.tiles.getWidth(), chunk.tiles.getHeight());
     }
 
-    private Texture createRadialLightMask(int size, float radius) {
-        Pixmap pm = new Pixmap(size, size, Pixmap.Format.RGBA8888);
-        float c = size / 2f;
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                float d = Vector2.dst(x, y, c, c);
-                float a = MathUtils.clamp(d / radius, 0, 1);
-                pm.setColor(0, 0, 0, a);
-                pm.drawPixel(x, y);
-            }
-        }
-        Texture t = new Texture(pm);
-        pm.dispose();
-        return t;
-    }
-
-    private Texture getItemTexture(ItemType type) {
-        switch (type) {
-            case SHIELD:
-                return shieldTexture;    // make sure you loaded this in create()
-            case SODA:
-                return sodaTexture;      // or whatever texture you use for speed
-            case BATTERY:
-                return batteryTexture;
-            default:
-                return null;
-        }
+    private void onChunkEvicted(Chunk chunk) {
+        tileCache.release(chunk);
+        fieldOfView.invalidate();
+        simulation.navigation.regionChanged(chunk.originX, chunk.originY, chunk.tiles.getWidth(), chunk.tiles.getHeight());
+        if (rayLighting != null) rayLighting.chunkEvicted(chunk);
+
+        ChunkEntities suspended = new ChunkEntities();
+        suspended.suspend(chunk.originX * tileSize, chunk.originY * tileSize,
+            chunk.tiles.getWidth() * tileSize, chunk.tiles.getHeight() * tileSize,
+            chunkEntities, simulation.engine, simulation.swarm);
+        if (!suspended.isEmpty()) suspendedChunks.put(chunk.key, suspended);
     }
 
-    private int getCompletedGenerators() {
-        int c = 0;
-        for (Generator g : generators) if (g.isCompleted()) c++;
-        return c;
+    private void setObstacle(Vector2 position, boolean obstacle) {
+        world.setObstacle((int) (position.x / tileSize), (int) (position.y / tileSize), obstacle);
     }
 
-    private void checkPlayerCollisions() {
+    // ======================
+    // ENTITY SPAWN
+    // ======================
+    private void spawnEntities(Chunk chunk) {
+        TileGrid map = chunk.tiles;
 
-        if (player.isShieldActive()) return;
+        // Item types are rolled from the map seed so a seed reproduces the whole level
+        RandomXS128 itemRandom = new RandomXS128(map.getSeed());
 
-        for (Trap t : traps) {
-            if (overlaps(t.position.x, t.position.y, t.size, t.size)) {
-                triggerGameOver();
-                return;
-            }
-        }
+        for (int ty = 0; ty < map.getHeight(); ty++) {
+            for (int tx = 0; tx < map.getWidth(); tx++) {
+                byte marker = map.getMarker(tx, ty);
+                if (marker == TileGrid.NONE) continue;
 
-        for (Drone d : drones) {
-            if (player.isShieldActive()) continue;
-            if (overlaps(d.position.x, d.position.y, d.size, d.size)) {
-                triggerGameOver();
-                return;
+                int worldTx = chunk.originX + tx, worldTy = chunk.originY + ty;
+                float x = worldTx * tileSize, y = worldTy * tileSize;
+
+                switch (marker) {
+                    case TileGrid.DRONE:
+                        // Seeded from the map and the tile, like the items, so the seed replays the drones too
+                        long droneSeed = map.getSeed() + worldTy * world.getWidth() + worldTx;
+                        if (swarmDrones > 0) spawnSwarm(chunk, droneSeed);
+                        else simulation.factory.drone(x, y, droneSeed);
+                        break;
+                    case TileGrid.TRAP:
+                        simulation.factory.trap(x, y);
+                        break;
+                    case TileGrid.GENERATOR:
+                        simulation.factory.generator(x, y);
+                        world.setObstacle(worldTx, worldTy, true);
+                        break;
+                    case TileGrid.ITEM:
+                        ItemType randomType = ItemType.values()[itemRandom.nextInt(ItemType.values().length)];
+                        simulation.factory.item(x, y, randomType);
+                        break;
+                    case TileGrid.EXIT:
+                        simulation.factory.door(x, y);
+                        world.setObstacle(worldTx, worldTy, true);
+                        break;
+                }
             }
         }
     }
 
-    private Item createRandomItem(Vector2 position) {
-        int r = MathUtils.random(2); // 0,1,2
-
-        if (r == 0) {
-            return new Item(
-                position,
-                shieldTexture,
-                ItemType.SHIELD,
-                tileSize
-            );
-        } else if (r == 1) {
-            return new Item(
-                position,
-                sodaTexture,
-                ItemType.SODA,
-                tileSize
-            );
-        } else {
-            return new Item(
-                position,
-                batteryTexture,
-                ItemType.BATTERY,
-                tileSize
-            );
+    // Scatters swarmDrones drones over the chunk's free tiles, away from the player's spawn
+    private void spawnSwarm(Chunk chunk, long seed) {
+        TileGrid map = chunk.tiles;
+        GridPoint2 spawn = worldSource.getSpawnTile();
+        RandomXS128 random = new RandomXS128(seed);
+
+        for (int placed = 0, tries = 0; placed < swarmDrones && tries < swarmDrones * 8; tries++) {
+            int tx = random.nextInt(map.getWidth()), ty = random.nextInt(map.getHeight());
+            int worldTx = chunk.originX + tx, worldTy = chunk.originY + ty;
+            if (!map.isFree(tx, ty)) continue;
+            if (Math.abs(worldTx - spawn.x) < SWARM_SPAWN_CLEARANCE && Math.abs(worldTy - spawn.y) < SWARM_SPAWN_CLEARANCE) continue;
+            simulation.swarm.add(worldTx * tileSize, worldTy * tileSize, random.nextLong());
+            placed++;
         }
     }
 
@@ -611,59 +726,44 @@ public class Main extends ApplicationAdapter {
         if (gameState == GameState.GAME_OVER) return;
 
         gameState = GameState.GAME_OVER;
-        defeatSound.play(0.8f);
+        audio.play(AudioService.Clip.DEFEAT, 0.8f);
     }
 
     private void renderVictoryScreen() {
-        renderMenuWithTitle("YOU ESCAPED", endScreenButtons);
+        // The image loads after the state is entered, the menu shows without it until then
+        renderMenuWithTitle("YOU ESCAPED", endScreenButtons, assets.getTexture(GameAssets.VICTORY_SCREEN));
     }
 
     private void renderDefeatScreen() {
-        renderMenuWithTitle("YOU DIED", endScreenButtons);
-    }
-
-    private void updateGame(float delta) {
-
-        player.update(delta, map, generators, doors);
-
-        for (Drone d : drones) {
-            d.update(delta, map, traps, trapTexture, player);
-        }
-
-        checkPlayerCollisions();
-        updateDoors();
-        checkPlayerOnDoors();
-
-        // Item pickup
-        for (Item item : items) {
-            if (!item.collected &&
-                player.position.x + player.size > item.position.x &&
-                player.position.x < item.position.x + item.size &&
-                player.position.y + player.size > item.position.y &&
-                player.position.y < item.position.y + item.size) {
-
-                if (player.addItem(item.type)) {
-                    item.collected = true;
-                    itemPickupSound.play(0.7f, MathUtils.random(0.95f, 1.05f), 0);
-
-                    switch (item.type) {
-                        case BATTERY:
-                            itemMessage = "Battery: Refills flashlight!";
-                            break;
-                        case SHIELD:
-                            itemMessage = "Shield: Invulnerability for 5 seconds!";
-                            break;
-                        case SODA:
-                            itemMessage = "Soda: Speed boost for 10 seconds!";
-                            break;
-                    }
-                    itemMessageTimer = itemMessageDuration; // reset timer
-                }
+        renderMenuWithTitle("YOU DIED", endScreenButtons, assets.getTexture(GameAssets.GAME_OVER_SCREEN));
+    }
+
+    /**
+     * Runs the simulation in fixed STEP increments for the time that has
+     * passed, so collisions and timers behave the same at any frame rate.
+     * Whatever is left over becomes the interpolation factor for rendering.
+     */
+    private void stepGame(float delta) {
+        simulation.players.pollInput();
+        accumulator += delta;
+
+        int steps = 0;
+        while (accumulator >= STEP && gameState == GameState.PLAYING) {
+            if (steps == MAX_STEPS_PER_FRAME) {
+                // Drop the backlog: after a long hitch the game slows down instead of spiralling
+                accumulator = 0f;
+                break;
             }
+            updateGame(STEP);
+            accumulator -= STEP;
+            steps++;
         }
+        renderAlpha = accumulator / STEP;
+        playerRenderPosition.set(playerTransform.previousPosition).lerp(playerTransform.position, renderAlpha);
+    }
 
-        updateFlashlight(delta);
-        updateProgressSounds();
+    private void updateGame(float delta) {
+        simulation.step(delta);
 
         if (itemMessageTimer > 0) {
             itemMessageTimer -= delta;
@@ -673,12 +773,25 @@ public class Main extends ApplicationAdapter {
 
     private void renderGame() {
         updateCamera();
+        updateWorldStreaming();
+        updateFieldOfView();
 
         renderWorld();
         renderDarkness();
 
+        // World overlays and the HUD share one batch pass
+        batch.begin();
         renderProgressBars();
         renderHUD();
+        batch.end();
+    }
+
+    // After streaming, so chunks that just came in are part of it
+    private void updateFieldOfView() {
+        int radiusTiles = MathUtils.ceil(player.lightRadius / 2f / tileSize);
+        int px = (int) Math.floor(playerTransform.getCenterX() / tileSize);
+        int py = (int) Math.floor(playerTransform.getCenterY() / tileSize);
+        fieldOfView.update(world, px, py, radiusTiles);
     }
 
     private void restartGame() {
@@ -690,206 +803,55 @@ public class Main extends ApplicationAdapter {
         gameState = GameState.MAIN_MENU;
     }
 
-    private boolean overlaps(float x, float y, float w, float h) {
-        return player.position.x + player.size > x &&
-            player.position.x < x + w &&
-            player.position.y + player.size > y &&
-            player.position.y < y + h;
-    }
-
     private void resetWorld() {
-        drones.clear();
-        traps.clear();
-        items.clear();
-        doors.clear();
-        generators.clear();
-
-        map = generateMap();
-        spawnEntities();
+        long resetStart = System.nanoTime();
+
+        // Suspended entities are still in the engine and go back to the pools too
+        simulation.clear();
+        spawnedChunks.clear();
+        suspendedChunks.clear();
+
+        if (level != null) {
+            worldSource = level;
+        } else if (facilityChunks > 0) {
+            worldSource = new ProceduralChunkSource(facilityChunks, facilityChunks, MathUtils.random.nextLong(),
+                Math.max(3, facilityChunks), 5, 5);
+        } else {
+            worldSource = new GridChunkSource(mapPool.take());
+        }
+        audio.stopAll();
+        tileCache.clear();
+        fieldOfView.invalidate();
+        if (rayLighting != null) rayLighting.clear();
+        world.setSource(worldSource);
+        simulation.navigation.reset(world);
 
         introTimer = 0f;
         postIntroTimer = 0f;
         currentIntroLine = 0;
 
-        for (Generator g : generators) g.reset();
-        for (Door d : doors) d.reset();
-
-        Vector2 spawnPos = findPlayerSpawn();
-        player.reset(spawnPos);
-
-        currentLightRadius = minLightRadius;
-        flashlightLocked = false;
-        flashlightLockTimer = 0f;
-        lastCompletedGenerators = 0;
-        totalGenerators = generators.size();
-    }
+        GridPoint2 spawn = worldSource.getSpawnTile();
+        Entity playerEntity = simulation.factory.player(spawn.x * tileSize, spawn.y * tileSize);
+        player = Mappers.player.get(playerEntity);
+        playerTransform = Mappers.transform.get(playerEntity);
+        playerRenderPosition.set(playerTransform.position);
 
-    private Vector2 findPlayerSpawn() {
-        for (int y = 0; y < map.length; y++) {
-            for (int x = 0; x < map[y].length; x++) {
-                if (map[y][x].equals("P")) {
-                    // Convert tile coordinates to world position
-                    return new Vector2(x * tileSize, (map.length - y - 1) * tileSize);
-                }
-            }
-        }
-        // Fallback in case "P" is not found
-        return new Vector2(tileSize, tileSize);
-    }
-
-    private String[][] generateMap() {
-        int size = 20;
-        String[][] map = new String[size][size];
-
-        // Step 1: Fill boundaries with walls, inner also initially walls
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                if (y == 0 || y == size - 1 || x == 0 || x == size - 1) {
-                    map[y][x] = "W";
-                } else {
-                    map[y][x] = "W";
-                }
-            }
-        }
-
-        // Step 2: Carve out floors using randomized growth (hallway width = 4)
-        int startX = 1 + MathUtils.random(2);
-        int startY = 1 + MathUtils.random(2);
-
-        map[startY][startX] = "F";
-        ArrayList<Vector2> frontier = new ArrayList<>();
-        frontier.add(new Vector2(startX, startY));
-
-        while (!frontier.isEmpty()) {
-            Vector2 pos = frontier.remove(MathUtils.random(frontier.size() - 1));
-            int x = (int) pos.x;
-            int y = (int) pos.y;
-
-            int[][] dirs = {{0,1},{0,-1},{1,0},{-1,0}};
-            for (int[] d : dirs) {
-                int nx = x + d[0]*2; // wider step
-                int ny = y + d[1]*2;
-
-                if (nx > 0 && nx < size-1 && ny > 0 && ny < size-1 && map[ny][nx].equals("W")) {
-                    // Carve out 4x4 floor
-                    for (int dy = 0; dy <= 3; dy++) {
-                        for (int dx = 0; dx <= 3; dx++) {
-                            int fx = x + d[0]*dx;
-                            int fy = y + d[1]*dy;
-                            if (fx > 0 && fx < size-1 && fy > 0 && fy < size-1) {
-                                map[fy][fx] = "F";
-                            }
-                        }
-                    }
-                    frontier.add(new Vector2(nx, ny));
-                }
-            }
-        }
-
-        // Step 3: Place doors adjacent to walls but not on boundary
-        // Guaranteed top door
-        ArrayList<Integer> topCandidates = new ArrayList<>();
-        for (int x = 1; x < size-1; x++) {
-            if (map[1][x].equals("F")) topCandidates.add(x);
-        }
-        if (!topCandidates.isEmpty()) {
-            int topDoorX = topCandidates.get(MathUtils.random(topCandidates.size() - 1));
-            map[1][topDoorX] = "E";
-        }
-
-        // Guaranteed bottom door
-        ArrayList<Integer> bottomCandidates = new ArrayList<>();
-        for (int x = 1; x < size-1; x++) {
-            if (map[size-2][x].equals("F")) bottomCandidates.add(x);
-        }
-        if (!bottomCandidates.isEmpty()) {
-            int bottomDoorX = bottomCandidates.get(MathUtils.random(bottomCandidates.size() - 1));
-            map[size-2][bottomDoorX] = "E";
-        }
-
-        // Step 4: Place player near left boundary avoiding door
-        for (int y = 1; y < size-1; y++) {
-            for (int x = 1; x < size-1; x++) {
-                if (map[y][x].equals("F")) {
-                    map[y][x] = "P";
-                    y = size; // break outer loop
-                    break;
-                }
-            }
-        }
-
-        // Step 5: Place drone at opposite end
-        for (int y = size-2; y > 0; y--) {
-            for (int x = size-2; x > 0; x--) {
-                if (map[y][x].equals("F")) {
-                    map[y][x] = "D";
-                    y = -1; // break outer loop
-                    break;
-                }
-            }
-        }
-
-        // Step 6: Place 3 generators adjacent to at least 1 "F"
-        int generatorsPlaced = 0;
-        while (generatorsPlaced < 3) {
-            int x = 1 + MathUtils.random(size-2-1);
-            int y = 1 + MathUtils.random(size-2-1);
-
-            if (!map[y][x].equals("F")) continue;
-
-            boolean hasAdjacentFloor = false;
-            int[][] adj = {{0,1},{0,-1},{1,0},{-1,0}};
-            for (int[] d : adj) {
-                int nx = x + d[0];
-                int ny = y + d[1];
-                if (map[ny][nx].equals("F")) {
-                    hasAdjacentFloor = true;
-                    break;
-                }
-            }
-
-            if (hasAdjacentFloor) {
-                map[y][x] = "G";
-                generatorsPlaced++;
-            }
-        }
-
-        // Step 7: Place 5 items randomly
-        int itemsPlaced = 0;
-        while (itemsPlaced < 5) {
-            int x = 1 + MathUtils.random(size-2-1);
-            int y = 1 + MathUtils.random(size-2-1);
-            if (map[y][x].equals("F")) {
-                map[y][x] = "I";
-                itemsPlaced++;
-            }
-        }
-
-        // Step 8: Place 5 traps randomly (not adjacent to other traps)
-        int trapsPlaced = 0;
-        while (trapsPlaced < 5) {
-            int x = 1 + MathUtils.random(size-2-1);
-            int y = 1 + MathUtils.random(size-2-1);
-            if (!map[y][x].equals("F")) continue;
-
-            boolean adjacent = false;
-            for (int dy=-1; dy<=1; dy++) {
-                for (int dx=-1; dx<=1; dx++) {
-                    int nx = x+dx;
-                    int ny = y+dy;
-                    if (nx > 0 && nx < size-1 && ny > 0 && ny < size-1) {
-                        if (map[ny][nx].equals("T")) adjacent = true;
-                    }
-                }
-            }
+        // Everything the first frames can see is loaded before play starts
+        updateCamera();
+        world.loadNow(viewMinTx, viewMinTy, viewMaxTx, viewMaxTy);
 
-            if (!adjacent) {
-                map[y][x] = "T";
-                trapsPlaced++;
-            }
-        }
+        accumulator = 0f;
+        renderAlpha = 0f;
+        simulation.objectives.reset(worldSource.getGeneratorCount());
 
-        return map;
+        long resetNanos = System.nanoTime() - resetStart;
+        resetCount++;
+        totalResetNanos += resetNanos;
+        maxResetNanos = Math.max(maxResetNanos, resetNanos);
+        Gdx.app.log("Main", String.format("resetWorld %.2f ms (avg %.2f, max %.2f) | map pool hits %d, misses %d, ready %d",
+            resetNanos / 1e6f, totalResetNanos / 1e6f / resetCount, maxResetNanos / 1e6f,
+            mapPool != null ? mapPool.getHits() : 0, mapPool != null ? mapPool.getMisses() : 0,
+            mapPool != null ? mapPool.getReadyCount() : 0));
     }
 
     private void setupMenus() {
@@ -921,37 +883,64 @@ public class Main extends ApplicationAdapter {
     }
 
     private void renderMenu(ArrayList<Button> buttons) {
-        batch.setProjectionMatrix(hudCamera.combined);
-        batch.begin();
-        for (Button b : buttons) b.render(batch, font);
-        batch.end();
+        // All backgrounds come from the atlas, all labels from the font page
+        for (int i = 0; i < buttons.size(); i++) buttons.get(i).renderBackground(batch, whitePixel);
+        for (int i = 0; i < buttons.size(); i++) buttons.get(i).renderLabel(batch, font);
     }
 
     private void updateMenuInput(ArrayList<Button> buttons) {
         float mouseX = Gdx.input.getX();
         float mouseY = Gdx.graphics.getHeight() - Gdx.input.getY(); // flip Y
-        for (Button b : buttons) b.update(mouseX, mouseY);
+        for (int i = 0; i < buttons.size(); i++) buttons.get(i).update(mouseX, mouseY);
 
         if (Gdx.input.justTouched()) {
-            for (Button b : buttons) if (b.isClicked(mouseX, mouseY)) b.click();
+            for (int i = 0; i < buttons.size(); i++) {
+                Button b = buttons.get(i);
+                if (b.isClicked(mouseX, mouseY)) b.click();
+            }
         }
     }
 
     private void renderMenuWithTitle(String title, ArrayList<Button> buttons) {
+        renderMenuWithTitle(title, buttons, null);
+    }
+
+    private void renderMenuWithTitle(String title, ArrayList<Button> buttons, Texture background) {
         batch.setProjectionMatrix(hudCamera.combined);
         batch.begin();
 
-        // Draw the title
+        if (background != null) batch.draw(background, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+
+        // Draw buttons
+        renderMenu(buttons);
+
+        // Draw the title, laid out again only when the menu changes
         BitmapFont titleFont = font; // you can use a separate larger font if you want
-        GlyphLayout layout = new GlyphLayout(titleFont, title);
-        float x = Gdx.graphics.getWidth() / 2f - layout.width / 2f;
+        if (title != menuTitle) {
+            menuTitleLayout.setText(titleFont, title);
+            menuTitle = title;
+        }
+        float x = Gdx.graphics.getWidth() / 2f - menuTitleLayout.width / 2f;
         float y = Gdx.graphics.getHeight() * 0.8f; // 80% from bottom
-        titleFont.draw(batch, layout, x, y);
+        titleFont.draw(batch, menuTitleLayout, x, y);
 
         batch.end();
+    }
 
-        // Draw buttons
-        renderMenu(buttons);
+    private void renderLoading() {
+        float w = Gdx.graphics.getWidth(), h = Gdx.graphics.getHeight();
+        float barW = w * 0.4f, barH = 12f;
+
+        batch.setProjectionMatrix(hudCamera.combined);
+        batch.begin();
+        batch.setColor(0.2f, 0.2f, 0.2f, 1f);
+        batch.draw(whitePixel, (w - barW) / 2f, h / 2f, barW, barH);
+        batch.setColor(1f, 1f, 0f, 1f);
+        batch.draw(whitePixel, (w - barW) / 2f, h / 2f, barW * assets.getProgress(), barH);
+        batch.setColor(Color.WHITE);
+        loadingText.set("Loading...", w / 2f, h / 2f + 40f, Align.center);
+        loadingText.draw(batch);
+        batch.end();
     }
 
     private void renderMainMenu() {
@@ -971,16 +960,15 @@ public class Main extends ApplicationAdapter {
 
         // Check if we need to display the next line
         if (currentIntroLine < introLines.length && introTimer >= lineInterval * currentIntroLine) {
-            beepSound.play(0.5f);
+            audio.play(AudioService.Clip.BEEP, 0.5f);
             currentIntroLine++;
         }
 
         // Draw all lines that should appear so far
         for (int i = 0; i < currentIntroLine; i++) {
-            String line = introLines[i];
-            GlyphLayout layout = new GlyphLayout(font, line);
-            font.draw(batch, line, Gdx.graphics.getWidth()/2f - layout.width/2f,
-                    Gdx.graphics.getHeight() * 0.7f - i * 30); // line spacing 30
+            introTexts[i].set(introLines[i], Gdx.graphics.getWidth()/2f,
+                    Gdx.graphics.getHeight() * 0.7f - i * 30, Align.center); // line spacing 30
+            introTexts[i].draw(batch);
         }
 
         batch.end();
@@ -997,26 +985,16 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        if (mapPool != null) mapPool.dispose();
+        world.dispose();
+        simulation.dispose();
+        tileCache.dispose();
         batch.dispose();
-        shapeRenderer.dispose();
-        wallTexture.dispose();
-        floorTexture.dispose();
-        trapTexture.dispose();
-        droneTexture.dispose();
-        playerTexture.dispose();
-        generatorTexture.dispose();
-        doorClosedTexture.dispose();
-        doorOpenTexture.dispose();
-        lightMask.dispose();
+        darkness.dispose();
+        if (rayLighting != null) rayLighting.dispose();
+        if (lightMap != null) lightMap.dispose();
         font.dispose();
-        victoryTexture.dispose();
-        gameOverTexture.dispose();
-        lightExpandSound.dispose();
-        lightShrinkSound.dispose();
-        generatorFixSound.dispose();
-        doorOpenSound.dispose();
-        victorySound.dispose();
-        defeatSound.dispose();
-        itemPickupSound.dispose();
+        audio.dispose();
+        assets.dispose();
     }
 }
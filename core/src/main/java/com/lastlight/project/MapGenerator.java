@@ -0,0 +1,219 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * Seeded facility generator. The same seed and parameters always produce the
+ * same TileGrid, and every step is bounded by the number of tiles: hallways
+ * are carved from a frontier that only ever grows into walls, and
+ * generators / items / traps are drawn from a shrinking free-cell index
+ * instead of retrying random positions. If the map runs out of room, fewer
+ * objects are placed rather than looping forever.
+ *
+ * Instances hold only parameters, so one generator can be shared between
+ * threads.
+ */
+public class MapGenerator {
+
+    private static final int[] DIR_X = {0, 0, 1, -1};
+    private static final int[] DIR_Y = {1, -1, 0, 0};
+
+    private final int width;
+    private final int height;
+    private final int hallwayWidth;
+    private final int generatorCount;
+    private final int itemCount;
+    private final int trapCount;
+
+    public MapGenerator(int width, int height, int hallwayWidth,
+                        int generatorCount, int itemCount, int trapCount) {
+        if (width < 3 || height < 3) throw new IllegalArgumentException("Map must be at least 3x3");
+        if (hallwayWidth < 1) throw new IllegalArgumentException("Hallway width must be positive");
+
+        this.width = width;
+        this.height = height;
+        this.hallwayWidth = hallwayWidth;
+        this.generatorCount = generatorCount;
+        this.itemCount = itemCount;
+        this.trapCount = trapCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public TileGrid generate(long seed) {
+        RandomXS128 random = new RandomXS128(seed);
+        TileGrid map = new TileGrid(width, height);
+        map.setSeed(seed);
+
+        // Step 1: Everything starts as wall
+        map.fill(TileGrid.WALL);
+
+        // Step 2: Carve hallways by randomized growth
+        carveHallways(map, random);
+
+        // Step 3: One exit on the top row and one on the bottom row
+        placeExit(map, random, height - 2);
+        placeExit(map, random, 1);
+
+        // Step 4: Player near the top-left corner
+        placePlayer(map);
+
+        // Step 5: Drone at the opposite end
+        placeDrone(map);
+
+        // Steps 6-8: Generators, items and traps from the free-cell index
+        int[] free = new int[width * height];
+        int freeCount = 0;
+        for (int ty = 1; ty < height - 1; ty++) {
+            for (int tx = 1; tx < width - 1; tx++) {
+                if (map.isFree(tx, ty)) free[freeCount++] = ty * width + tx;
+            }
+        }
+
+        freeCount = placeFromIndex(map, random, free, freeCount, generatorCount, TileGrid.GENERATOR);
+        freeCount = placeFromIndex(map, random, free, freeCount, itemCount, TileGrid.ITEM);
+        placeFromIndex(map, random, free, freeCount, trapCount, TileGrid.TRAP);
+
+        return map;
+    }
+
+    private void carveHallways(TileGrid map, RandomXS128 random) {
+        // Step past at most half a hallway so the next frontier cell is
+        // always carved by the current hallway and never pushed twice.
+        int step = Math.max(1, hallwayWidth / 2);
+        int length = Math.max(hallwayWidth, step + 1);
+
+        int startX = Math.min(width - 2, 1 + random.nextInt(3));
+        int startY = Math.max(1, height - 2 - random.nextInt(3));
+        map.setTile(startX, startY, TileGrid.FLOOR);
+
+        int[] frontier = new int[16];
+        int frontierSize = 0;
+        frontier[frontierSize++] = startY * width + startX;
+
+        while (frontierSize > 0) {
+            int pick = random.nextInt(frontierSize);
+            int cell = frontier[pick];
+            frontier[pick] = frontier[--frontierSize];
+
+            int x = cell % width;
+            int y = cell / width;
+
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DIR_X[d] * step;
+                int ny = y + DIR_Y[d] * step;
+                if (!isInterior(nx, ny) || map.getTile(nx, ny) != TileGrid.WALL) continue;
+
+                for (int i = 0; i < length; i++) {
+                    int fx = x + DIR_X[d] * i;
+                    int fy = y + DIR_Y[d] * i;
+                    if (isInterior(fx, fy)) map.setTile(fx, fy, TileGrid.FLOOR);
+                }
+
+                if (frontierSize == frontier.length) {
+                    int[] grown = new int[frontier.length * 2];
+                    System.arraycopy(frontier, 0, grown, 0, frontierSize);
+                    frontier = grown;
+                }
+                frontier[frontierSize++] = ny * width + nx;
+            }
+        }
+    }
+
+    private void placeExit(TileGrid map, RandomXS128 random, int row) {
+        // Reservoir pick: uniform over the free tiles of the row in one pass
+        int chosen = -1;
+        int seen = 0;
+        for (int x = 1; x < width - 1; x++) {
+            if (!map.isFree(x, row)) continue;
+            seen++;
+            if (random.nextInt(seen) == 0) chosen = x;
+        }
+        if (chosen >= 0) map.setMarker(chosen, row, TileGrid.EXIT);
+    }
+
+    private void placePlayer(TileGrid map) {
+        for (int y = height - 2; y > 0; y--) {
+            for (int x = 1; x < width - 1; x++) {
+                if (map.isFree(x, y)) {
+                    map.setMarker(x, y, TileGrid.PLAYER);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void placeDrone(TileGrid map) {
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = width - 2; x > 0; x--) {
+                if (map.isFree(x, y)) {
+                    map.setMarker(x, y, TileGrid.DRONE);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws up to {@code count} cells from free[0..freeCount) without
+     * replacement. Rejected cells are parked behind the draw range so they
+     * stay available to later phases; placed cells are dropped for good.
+     *
+     * @return the number of cells still in the index
+     */
+    private int placeFromIndex(TileGrid map, RandomXS128 random, int[] free, int freeCount,
+                               int count, byte marker) {
+        int remaining = freeCount;
+        int placed = 0;
+
+        while (placed < count && remaining > 0) {
+            int pick = random.nextInt(remaining);
+            int cell = free[pick];
+            free[pick] = free[--remaining];
+            free[remaining] = cell;
+
+            int x = cell % width;
+            int y = cell / width;
+            if (!canPlace(map, x, y, marker)) continue;
+
+            map.setMarker(x, y, marker);
+            placed++;
+
+            // Drop the cell: the last entry is already a rejected cell (or the cell itself)
+            free[remaining] = free[--freeCount];
+        }
+        return freeCount;
+    }
+
+    private boolean canPlace(TileGrid map, int x, int y, byte marker) {
+        if (!map.isFree(x, y)) return false;
+
+        if (marker == TileGrid.GENERATOR) {
+            // Must stay reachable: at least one free floor tile next to it
+            for (int d = 0; d < 4; d++) {
+                if (map.isFree(x + DIR_X[d], y + DIR_Y[d])) return true;
+            }
+            return false;
+        }
+
+        if (marker == TileGrid.TRAP) {
+            // Not adjacent to other traps
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (map.getMarker(x + dx, y + dy) == TileGrid.TRAP) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isInterior(int x, int y) {
+        return x > 0 && x < width - 1 && y > 0 && y < height - 1;
+    }
+}
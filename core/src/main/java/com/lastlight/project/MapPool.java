@@ -0,0 +1,73 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded queue of pre-generated maps. A daemon worker keeps the queue full
+ * in the background, so taking a map on the render thread is normally just a
+ * queue poll. If the worker has fallen behind, the map is generated inline
+ * and counted as a miss.
+ */
+public class MapPool {
+
+    private final MapGenerator generator;
+    private final ArrayBlockingQueue<TileGrid> ready;
+    private final Thread worker;
+
+    private int hits = 0;
+    private int misses = 0;
+
+    public MapPool(MapGenerator generator, int capacity) {
+        this.generator = generator;
+        this.ready = new ArrayBlockingQueue<>(capacity);
+
+        final RandomXS128 seeds = new RandomXS128(MathUtils.random.nextLong());
+        this.worker = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    // Blocks while the pool is full, which is what throttles the worker
+                    ready.put(generator.generate(seeds.nextLong()));
+                }
+            } catch (InterruptedException ignored) {
+                // dispose() was called
+            }
+        }, "map-pool");
+        this.worker.setDaemon(true);
+        this.worker.setPriority(Thread.MIN_PRIORITY);
+    }
+
+    public void start() {
+        worker.start();
+    }
+
+    /** Called on the render thread. */
+    public TileGrid take() {
+        TileGrid map = ready.poll();
+        if (map != null) {
+            hits++;
+            return map;
+        }
+        misses++;
+        return generator.generate(MathUtils.random.nextLong());
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public int getReadyCount() {
+        return ready.size();
+    }
+
+    public void dispose() {
+        worker.interrupt();
+        ready.clear();
+    }
+}
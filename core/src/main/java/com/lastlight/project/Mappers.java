@@ -0,0 +1,18 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.ComponentMapper;
+
+/** Component lookups shared by the systems. */
+public final class Mappers {
+
+    public static final ComponentMapper<TransformComponent> transform = ComponentMapper.getFor(TransformComponent.class);
+    public static final ComponentMapper<SpriteComponent> sprite = ComponentMapper.getFor(SpriteComponent.class);
+    public static final ComponentMapper<PlayerComponent> player = ComponentMapper.getFor(PlayerComponent.class);
+    public static final ComponentMapper<DroneComponent> drone = ComponentMapper.getFor(DroneComponent.class);
+    public static final ComponentMapper<GeneratorComponent> generator = ComponentMapper.getFor(GeneratorComponent.class);
+    public static final ComponentMapper<DoorComponent> door = ComponentMapper.getFor(DoorComponent.class);
+    public static final ComponentMapper<ItemComponent> item = ComponentMapper.getFor(ItemComponent.class);
+
+    private Mappers() {
+    }
+}
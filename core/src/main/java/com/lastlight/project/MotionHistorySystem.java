@@ -0,0 +1,20 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+
+/** Remembers where everything that moves was before the step, for render interpolation. */
+public class MotionHistorySystem extends IteratingSystem {
+
+    public MotionHistorySystem(int priority) {
+        super(Family.all(TransformComponent.class).one(PlayerComponent.class, DroneComponent.class)
+            .exclude(SuspendedComponent.class).get(), priority);
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float delta) {
+        TransformComponent t = Mappers.transform.get(entity);
+        t.previousPosition.set(t.position);
+    }
+}
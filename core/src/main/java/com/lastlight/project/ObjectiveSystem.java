@@ -0,0 +1,101 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * The way out: counts repaired generators, makes the doors openable once all
+ * of them are done, opens the door the player holds F on, and reports the
+ * escape when the player stands in an open door.
+ */
+public class ObjectiveSystem extends EntitySystem {
+
+    private final Broadphase broadphase;
+    private final AudioService audio;
+    private final Simulation.Listener listener;
+    private ImmutableArray<Entity> players;
+    private ImmutableArray<Entity> doors;
+    private final Array<Entity> doorsUnderPlayer = new Array<>();
+
+    private int totalGenerators = 0;
+    private int completedGenerators = 0;
+
+    public ObjectiveSystem(int priority, Broadphase broadphase, AudioService audio, Simulation.Listener listener) {
+        super(priority);
+        this.broadphase = broadphase;
+        this.audio = audio;
+        this.listener = listener;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        players = engine.getEntitiesFor(Family.all(PlayerComponent.class, TransformComponent.class).get());
+        doors = engine.getEntitiesFor(Family.all(DoorComponent.class).exclude(SuspendedComponent.class).get());
+    }
+
+    /** Starts a new level with that many generators to repair. */
+    public void reset(int totalGenerators) {
+        this.totalGenerators = totalGenerators;
+        completedGenerators = 0;
+    }
+
+    public int getTotalGenerators() {
+        return totalGenerators;
+    }
+
+    public int getCompletedGenerators() {
+        return completedGenerators;
+    }
+
+    public boolean isAllGeneratorsDone() {
+        return completedGenerators == totalGenerators;
+    }
+
+    @Override
+    public void update(float delta) {
+        if (players.size() == 0) return;
+        Entity playerEntity = players.first();
+        PlayerComponent player = Mappers.player.get(playerEntity);
+
+        // Only the generator the player is working on can have just completed
+        Entity g = player.interactingGenerator;
+        if (g != null) {
+            GeneratorComponent generator = Mappers.generator.get(g);
+            if (generator.completed && !generator.counted) {
+                generator.counted = true;
+                completedGenerators++;
+                audio.play(AudioService.Clip.GENERATOR_FIX, 0.7f);
+                listener.generatorCompleted(g);
+            }
+        }
+
+        // Doors become interactable only after all generators are done
+        boolean openable = isAllGeneratorsDone();
+        for (int i = 0; i < doors.size(); i++) {
+            Entity d = doors.get(i);
+            DoorComponent door = Mappers.door.get(d);
+            door.openable = openable;
+            if (player.interactingDoor == d && door.progress(delta)) {
+                Mappers.sprite.get(d).region = door.openRegion;
+                TransformComponent t = Mappers.transform.get(d);
+                audio.playAt(AudioService.Clip.DOOR_OPEN, t.getCenterX(), t.getCenterY(), 0.8f);
+                listener.doorOpened(d);
+            }
+        }
+
+        // Doors under the player's centre point
+        TransformComponent t = Mappers.transform.get(playerEntity);
+        doorsUnderPlayer.clear();
+        broadphase.doors.queryAabb(t.getCenterX(), t.getCenterY(), 0f, 0f, doorsUnderPlayer);
+        for (int i = 0; i < doorsUnderPlayer.size; i++) {
+            if (Mappers.door.get(doorsUnderPlayer.get(i)).open) {
+                listener.playerEscaped();
+                break;
+            }
+        }
+    }
+}
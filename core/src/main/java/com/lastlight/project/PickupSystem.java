@@ -0,0 +1,53 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+
+/** Moves the items the player walks over into the inventory, while it has room. */
+public class PickupSystem extends EntitySystem {
+
+    private final Broadphase broadphase;
+    private final AudioService audio;
+    private final Simulation.Listener listener;
+    private ImmutableArray<Entity> players;
+    private final Array<Entity> nearbyItems = new Array<>();
+
+    public PickupSystem(int priority, Broadphase broadphase, AudioService audio, Simulation.Listener listener) {
+        super(priority);
+        this.broadphase = broadphase;
+        this.audio = audio;
+        this.listener = listener;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        players = engine.getEntitiesFor(Family.all(PlayerComponent.class, TransformComponent.class).get());
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int p = 0; p < players.size(); p++) {
+            Entity entity = players.get(p);
+            PlayerComponent player = Mappers.player.get(entity);
+            TransformComponent t = Mappers.transform.get(entity);
+
+            nearbyItems.clear();
+            broadphase.items.queryAabb(t.position.x, t.position.y, t.size, t.size, nearbyItems);
+            for (int i = 0; i < nearbyItems.size; i++) {
+                Entity item = nearbyItems.get(i);
+                // Removal is applied after the system, together with the broadphase
+                if (item.isScheduledForRemoval()) continue;
+                ItemType type = Mappers.item.get(item).type;
+                if (!player.addItem(type)) break;
+                getEngine().removeEntity(item);
+                audio.play(AudioService.Clip.PICK, 0.7f, MathUtils.random(0.95f, 1.05f));
+                listener.itemPicked(type);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * The player's inventory, item effects and flashlight, advanced by
+ * PlayerSystem and FlashlightSystem.
+ */
+public class PlayerComponent implements Component, Pool.Poolable {
+
+    public static final float MAX_BATTERY = 100f;
+
+    public final ItemType[] inventory = new ItemType[3];
+    // Item keys pressed this frame, used by the next simulation step
+    public final boolean[] itemRequested = new boolean[3];
+
+    public boolean shieldActive = false;
+    public boolean speedBoostActive = false;
+    public float shieldTimer = 0f;
+    public float speedTimer = 0f;
+    public float battery = MAX_BATTERY;
+
+    // Radius of the lit area, which grows while the button is held
+    public float lightRadius = FlashlightSystem.MIN_RADIUS;
+    // Set when the battery ran flat; the light cannot be used until it clears
+    public boolean flashlightLocked = false;
+    public float flashlightLockTimer = 0f;
+    public boolean lightHeld = false;
+
+    // The generator or door the player is holding F on
+    public Entity interactingGenerator;
+    public Entity interactingDoor;
+
+    /** False if the inventory is full. */
+    public boolean addItem(ItemType item) {
+        for (int i = 0; i < inventory.length; i++) {
+            if (inventory[i] == null) {
+                inventory[i] = item;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void drainBattery(float amount) {
+        battery = Math.max(0, battery - amount);
+    }
+
+    public void rechargeBattery(float amount) {
+        battery = Math.min(MAX_BATTERY, battery + amount);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < inventory.length; i++) {
+            inventory[i] = null;
+            itemRequested[i] = false;
+        }
+        shieldActive = false;
+        speedBoostActive = false;
+        shieldTimer = 0f;
+        speedTimer = 0f;
+        battery = MAX_BATTERY;
+        lightRadius = FlashlightSystem.MIN_RADIUS;
+        flashlightLocked = false;
+        flashlightLockTimer = 0f;
+        lightHeld = false;
+        interactingGenerator = null;
+        interactingDoor = null;
+    }
+}
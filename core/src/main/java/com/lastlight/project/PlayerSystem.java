@@ -0,0 +1,177 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Keyboard control of the player: walking and sprinting, holding F on a
+ * generator or an openable door, and using items. Item effects and their
+ * timers run here too.
+ */
+public class PlayerSystem extends IteratingSystem {
+
+    private static final float WALK_SPEED = 80f;
+    private static final float SPRINT_SPEED = 120f;
+
+    private final TileMap map;
+    private final Broadphase broadphase;
+    private final AudioService audio;
+    private final float tileSize;
+
+    // Reused broadphase results
+    private final Array<Entity> nearbyGenerators = new Array<>();
+    private final Array<Entity> nearbyDoors = new Array<>();
+    private final Vector2 movement = new Vector2();
+
+    public PlayerSystem(int priority, TileMap map, Broadphase broadphase, AudioService audio, float tileSize) {
+        super(Family.all(PlayerComponent.class, TransformComponent.class).get(), priority);
+        this.map = map;
+        this.broadphase = broadphase;
+        this.audio = audio;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Latches the one-frame key presses. Called once per rendered frame, since
+     * a frame can run several simulation steps or none at all.
+     */
+    public void pollInput() {
+        for (int i = 0; i < getEntities().size(); i++) {
+            PlayerComponent player = Mappers.player.get(getEntities().get(i));
+            if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_1)) player.itemRequested[0] = true;
+            if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_2)) player.itemRequested[1] = true;
+            if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_3)) player.itemRequested[2] = true;
+        }
+    }
+
+    @Override
+    protected void processEntity(Entity entity, float delta) {
+        PlayerComponent player = Mappers.player.get(entity);
+        TransformComponent transform = Mappers.transform.get(entity);
+
+        if (Gdx.input.isKeyPressed(Input.Keys.F)) {
+            // Acquire interaction ONCE
+            if (player.interactingGenerator == null && player.interactingDoor == null) acquire(player, transform);
+
+            // Progress interaction; ObjectiveSystem reacts to what it completes
+            if (player.interactingGenerator != null) Mappers.generator.get(player.interactingGenerator).progress(delta);
+        } else {
+            // Release interaction
+            player.interactingGenerator = null;
+            player.interactingDoor = null;
+        }
+
+        // Use items
+        for (int i = 0; i < player.itemRequested.length; i++) {
+            if (player.itemRequested[i]) {
+                player.itemRequested[i] = false;
+                useItem(player, i);
+            }
+        }
+
+        // Update timers
+        if (player.shieldActive) {
+            player.shieldTimer -= delta;
+            if (player.shieldTimer <= 0) player.shieldActive = false;
+        }
+        if (player.speedBoostActive) {
+            player.speedTimer -= delta;
+            if (player.speedTimer <= 0) player.speedBoostActive = false;
+        }
+
+        // Movement only when NOT interacting
+        if (player.interactingGenerator == null && player.interactingDoor == null) {
+            float baseSpeed = Gdx.input.isKeyPressed(Input.Keys.SHIFT_LEFT) ? SPRINT_SPEED : WALK_SPEED;
+            float currentSpeed = player.speedBoostActive ? baseSpeed * 2f : baseSpeed;
+
+            movement.setZero();
+            if (Gdx.input.isKeyPressed(Input.Keys.W)) movement.y += currentSpeed * delta;
+            if (Gdx.input.isKeyPressed(Input.Keys.S)) movement.y -= currentSpeed * delta;
+            if (Gdx.input.isKeyPressed(Input.Keys.A)) movement.x -= currentSpeed * delta;
+            if (Gdx.input.isKeyPressed(Input.Keys.D)) movement.x += currentSpeed * delta;
+
+            Vector2 position = transform.position;
+            if (!isColliding(position.x + movement.x, position.y, transform.size)) position.x += movement.x;
+            if (!isColliding(position.x, position.y + movement.y, transform.size)) position.y += movement.y;
+        }
+
+        // Positional sounds of this step are heard from where the player ended up
+        audio.setListener(transform.getCenterX(), transform.getCenterY());
+    }
+
+    // Anything near has its centre within a tile of the player's
+    private void acquire(PlayerComponent player, TransformComponent transform) {
+        float cx = transform.getCenterX();
+        float cy = transform.getCenterY();
+
+        nearbyGenerators.clear();
+        broadphase.generators.queryAabb(cx - tileSize, cy - tileSize, tileSize * 2f, tileSize * 2f, nearbyGenerators);
+        for (int i = 0; i < nearbyGenerators.size; i++) {
+            Entity g = nearbyGenerators.get(i);
+            if (!Mappers.generator.get(g).completed && isNear(cx, cy, g)) {
+                player.interactingGenerator = g;
+                return;
+            }
+        }
+
+        nearbyDoors.clear();
+        broadphase.doors.queryAabb(cx - tileSize, cy - tileSize, tileSize * 2f, tileSize * 2f, nearbyDoors);
+        for (int i = 0; i < nearbyDoors.size; i++) {
+            Entity d = nearbyDoors.get(i);
+            DoorComponent door = Mappers.door.get(d);
+            if (door.openable && !door.open && isNear(cx, cy, d)) {
+                player.interactingDoor = d;
+                return;
+            }
+        }
+    }
+
+    private boolean isNear(float cx, float cy, Entity other) {
+        TransformComponent t = Mappers.transform.get(other);
+        return Math.abs(cx - t.getCenterX()) < tileSize && Math.abs(cy - t.getCenterY()) < tileSize;
+    }
+
+    private void useItem(PlayerComponent player, int index) {
+        ItemType item = player.inventory[index];
+        if (item == null) return;
+
+        switch (item) {
+            case SHIELD:
+                player.shieldActive = true;
+                player.shieldTimer = 5f;
+                audio.play(AudioService.Clip.SHIELD, 1f);
+                break;
+            case SODA:
+                player.speedBoostActive = true;
+                player.speedTimer = 10f;
+                audio.play(AudioService.Clip.SODA, 1f);
+                break;
+            case BATTERY:
+                player.battery = PlayerComponent.MAX_BATTERY;
+                audio.play(AudioService.Clip.BATTERY, 1f);
+                break;
+        }
+
+        player.inventory[index] = null; // consume item
+    }
+
+    // Generators and closed doors are baked into the map as solid tiles
+    private boolean isColliding(float x, float y, float size) {
+        int leftTile = (int) (x / tileSize);
+        int rightTile = (int) ((x + size) / tileSize);
+        int bottomTile = (int) (y / tileSize);
+        int topTile = (int) ((y + size) / tileSize);
+
+        for (int ty = bottomTile; ty <= topTile; ty++) {
+            for (int tx = leftTile; tx <= rightTile; tx++) {
+                if (map.isSolid(tx, ty)) return true;
+            }
+        }
+        return false;
+    }
+}
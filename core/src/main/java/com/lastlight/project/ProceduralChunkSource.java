@@ -0,0 +1,135 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.math.GridPoint2;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntSet;
+
+/**
+ * Builds an arbitrarily large facility chunk by chunk, without ever holding
+ * the whole level. Each chunk is its own MapGenerator map seeded from the
+ * level seed and the chunk coordinates, so a chunk regenerates identically
+ * after being evicted. Neighbouring chunks are joined by a doorway whose
+ * position both sides derive from the shared edge.
+ *
+ * The player starts in the top-left chunk. Generators and the two exits are
+ * spread over chunks picked once per level. Every chunk's generator places
+ * an exit pair of its own; all but the level's are stripped, so the level
+ * has exactly two exits.
+ */
+public class ProceduralChunkSource implements ChunkSource {
+
+    private static final int SIZE = ChunkedWorld.CHUNK_SIZE;
+
+    private final int chunksX, chunksY;
+    private final long seed;
+
+    private final MapGenerator withGenerator;
+    private final MapGenerator withoutGenerator;
+    private final IntSet generatorChunks = new IntSet();
+    // Exits kept in each exit chunk: one in each of two chunks, both in a one-chunk level
+    private final IntIntMap exitChunks = new IntIntMap();
+    private final int spawnChunk;
+
+    private GridPoint2 spawnTile;
+
+    public ProceduralChunkSource(int chunksX, int chunksY, long seed,
+                                 int generatorCount, int itemsPerChunk, int trapsPerChunk) {
+        this.chunksX = chunksX;
+        this.chunksY = chunksY;
+        this.seed = seed;
+        this.withGenerator = new MapGenerator(SIZE, SIZE, 4, 1, itemsPerChunk, trapsPerChunk);
+        this.withoutGenerator = new MapGenerator(SIZE, SIZE, 4, 0, itemsPerChunk, trapsPerChunk);
+        this.spawnChunk = (chunksY - 1) * chunksX;
+
+        int chunkCount = chunksX * chunksY;
+        RandomXS128 random = new RandomXS128(seed);
+        int generators = Math.min(generatorCount, chunkCount);
+        while (generatorChunks.size < generators) generatorChunks.add(random.nextInt(chunkCount));
+        if (chunkCount == 1) exitChunks.put(0, 2);
+        while (exitChunks.size < Math.min(2, chunkCount)) exitChunks.put(random.nextInt(chunkCount), 1);
+    }
+
+    @Override
+    public TileGrid loadChunk(int cx, int cy) {
+        int key = cy * chunksX + cx;
+        MapGenerator generator = generatorChunks.contains(key) ? withGenerator : withoutGenerator;
+        TileGrid chunk = generator.generate(ChunkSource.chunkSeed(seed, cx, cy));
+
+        // Only one player, and only as many exits as the level wants here
+        int exits = exitChunks.get(key, 0);
+        boolean keepPlayer = key == spawnChunk;
+        for (int ty = 0; ty < SIZE; ty++) {
+            for (int tx = 0; tx < SIZE; tx++) {
+                byte marker = chunk.getMarker(tx, ty);
+                if (marker == TileGrid.EXIT && exits > 0) {
+                    exits--;
+                } else if (marker == TileGrid.EXIT || (marker == TileGrid.PLAYER && !keepPlayer)) {
+                    chunk.setMarker(tx, ty, TileGrid.NONE);
+                }
+            }
+        }
+        // The generator found no free tile on an exit row; any free tile will do
+        for (int i = 0; i < SIZE * SIZE && exits > 0; i++) {
+            int tx = i % SIZE, ty = i / SIZE;
+            if (chunk.isFree(tx, ty)) {
+                chunk.setMarker(tx, ty, TileGrid.EXIT);
+                exits--;
+            }
+        }
+
+        // Doorways through the chunk border towards every neighbour
+        if (cx > 0) carve(chunk, 0, edgeOffset(cx - 1, cy, 0), 1, 0);
+        if (cx < chunksX - 1) carve(chunk, SIZE - 1, edgeOffset(cx, cy, 0), -1, 0);
+        if (cy > 0) carve(chunk, edgeOffset(cx, cy - 1, 1), 0, 0, 1);
+        if (cy < chunksY - 1) carve(chunk, edgeOffset(cx, cy, 1), SIZE - 1, 0, -1);
+
+        return chunk;
+    }
+
+    /** Opens walls from the border inwards until the corridor reaches the chunk's hallways. */
+    private void carve(TileGrid chunk, int x, int y, int dx, int dy) {
+        while (chunk.inBounds(x, y) && chunk.getTile(x, y) == TileGrid.WALL) {
+            chunk.setTile(x, y, TileGrid.FLOOR);
+            x += dx;
+            y += dy;
+        }
+    }
+
+    /** Doorway offset along the right (axis 0) or top (axis 1) edge of chunk (cx, cy). */
+    private int edgeOffset(int cx, int cy, int axis) {
+        long h = ChunkSource.chunkSeed(seed ^ (axis + 1) * 0x5851F42D4C957F2DL, cx, cy);
+        return 1 + (int) ((h >>> 33) % (SIZE - 2));
+    }
+
+    @Override
+    public int getWidth() {
+        return chunksX * SIZE;
+    }
+
+    @Override
+    public int getHeight() {
+        return chunksY * SIZE;
+    }
+
+    @Override
+    public GridPoint2 getSpawnTile() {
+        if (spawnTile == null) {
+            int cx = spawnChunk % chunksX;
+            int cy = spawnChunk / chunksX;
+            TileGrid chunk = loadChunk(cx, cy);
+            spawnTile = new GridPoint2(cx * SIZE + 1, cy * SIZE + 1);
+            for (int ty = 0; ty < SIZE; ty++) {
+                for (int tx = 0; tx < SIZE; tx++) {
+                    if (chunk.getMarker(tx, ty) == TileGrid.PLAYER) spawnTile.set(cx * SIZE + tx, cy * SIZE + ty);
+                }
+            }
+        }
+        return spawnTile;
+    }
+
+    @Override
+    public int getGeneratorCount() {
+        return generatorChunks.size;
+    }
+}
@@ -0,0 +1,61 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Bars above the generators being repaired and the doors that can be opened,
+ * out of the entities RenderSystem found on camera. Like RenderSystem, it is
+ * drawn by Main once per frame.
+ */
+public class ProgressBarSystem extends EntitySystem {
+
+    private static final float BAR_HEIGHT = 6f;
+
+    private final SpriteBatch batch;
+    private final OrthographicCamera camera;
+    private final TextureRegion white;
+    private float viewX, viewY, viewW, viewH;
+
+    public ProgressBarSystem(SpriteBatch batch, OrthographicCamera camera, TextureRegion white) {
+        this.batch = batch;
+        this.camera = camera;
+        this.white = white;
+        setProcessing(false);
+    }
+
+    /** Draws into the running batch, for the entities of {@link RenderSystem#getVisible}. */
+    public void render(Array<Entity> visible) {
+        viewW = camera.viewportWidth * camera.zoom;
+        viewH = camera.viewportHeight * camera.zoom;
+        viewX = camera.position.x - viewW / 2f;
+        viewY = camera.position.y - viewH / 2f;
+
+        for (int i = 0; i < visible.size; i++) {
+            Entity e = visible.get(i);
+            GeneratorComponent g = Mappers.generator.get(e);
+            if (g != null) {
+                if (!g.completed) drawBar(Mappers.transform.get(e), g.progress / GeneratorComponent.MAX_PROGRESS);
+                continue;
+            }
+            DoorComponent d = Mappers.door.get(e);
+            if (d != null && d.openable && !d.open) drawBar(Mappers.transform.get(e), d.progress / DoorComponent.MAX_PROGRESS);
+        }
+    }
+    private void drawBar(TransformComponent t, float ratio) {
+        float x = t.position.x;
+        float y = t.position.y + t.size + BAR_HEIGHT;
+        if (x + t.size < viewX || x > viewX + viewW || y + BAR_HEIGHT < viewY || y > viewY + viewH) return;
+
+        batch.setColor(0.15f, 0.15f, 0.15f, 1f);
+        batch.draw(white, x, y, t.size, BAR_HEIGHT);
+        batch.setColor(0.2f, 0.9f, 0.2f, 1f);
+        batch.draw(white, x, y, t.size * ratio, BAR_HEIGHT);
+        batch.setColor(Color.WHITE);
+    }
+}
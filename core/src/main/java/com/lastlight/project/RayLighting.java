@@ -0,0 +1,162 @@
+package com.lastlight.project;
+
+import box2dLight.PointLight;
+import box2dLight.RayHandler;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.util.Arrays;
+
+/**
+ * Shadow casting light through box2dlights. The Box2D world is only used
+ * for ray casts: every resident chunk gets one static body whose fixtures
+ * are its wall tiles merged into as few rectangles as possible, so a ray
+ * tests a handful of boxes per chunk instead of one per wall tile.
+ *
+ * Lights are the player's flashlight and, optionally, a glow on each
+ * completed generator in view. Glow lights are pooled and reassigned every
+ * frame, so nothing has to follow generators in and out of chunks.
+ */
+public class RayLighting {
+
+    private static final Color FLASHLIGHT_COLOR = new Color(1f, 0.95f, 0.8f, 1f);
+    private static final Color GLOW_COLOR = new Color(1f, 0.8f, 0.3f, 0.8f);
+    private static final int GLOW_RAYS_DIVISOR = 4;
+
+    private final LightSettings settings;
+    private final float tileSize;
+
+    private final World world;
+    private final RayHandler rayHandler;
+    private final PointLight flashlight;
+    private final Array<PointLight> glows = new Array<>();
+
+    private final IntMap<Body> occluders = new IntMap<>();
+    private final BodyDef bodyDef = new BodyDef();
+    private final PolygonShape box = new PolygonShape();
+    private final Vector2 center = new Vector2();
+
+    // Greedy merge scratch, one flag per tile of a chunk
+    private final boolean[] merged = new boolean[ChunkedWorld.CHUNK_SIZE * ChunkedWorld.CHUNK_SIZE];
+
+    public RayLighting(LightSettings settings, float tileSize) {
+        this.settings = settings;
+        this.tileSize = tileSize;
+
+        Box2D.init();
+        world = new World(Vector2.Zero, false);
+        bodyDef.type = BodyDef.BodyType.StaticBody;
+
+        int divisor = Math.max(1, settings.lightmapDivisor);
+        rayHandler = new RayHandler(world, Math.max(1, Gdx.graphics.getWidth() / divisor),
+            Math.max(1, Gdx.graphics.getHeight() / divisor));
+        rayHandler.setAmbientLight(0f, 0f, 0f, 0f);
+        rayHandler.setBlurNum(1);
+
+        flashlight = new PointLight(rayHandler, settings.rays, FLASHLIGHT_COLOR, 1f, 0f, 0f);
+        // Lets the light bleed onto the face of the walls it hits
+        flashlight.setSoftnessLength(tileSize / 4f);
+    }
+
+    /** Builds the occluders of a chunk that became resident. */
+    public void chunkLoaded(Chunk chunk) {
+        chunkEvicted(chunk);
+
+        TileGrid tiles = chunk.tiles;
+        int w = tiles.getWidth(), h = tiles.getHeight();
+        Body body = null;
+        Arrays.fill(merged, false);
+
+        for (int ty = 0; ty < h; ty++) {
+            for (int tx = 0; tx < w; tx++) {
+                if (merged[ty * w + tx] || !tiles.isWall(tx, ty)) continue;
+
+                // Widest run along the row, then grow it upwards while the next row has the same run
+                int runW = 1;
+                while (tx + runW < w && !merged[ty * w + tx + runW] && tiles.isWall(tx + runW, ty)) runW++;
+                int runH = 1;
+                while (ty + runH < h && isWallRun(tiles, tx, ty + runH, runW)) runH++;
+
+                for (int y = ty; y < ty + runH; y++) {
+                    for (int x = tx; x < tx + runW; x++) merged[y * w + x] = true;
+                }
+
+                if (body == null) body = world.createBody(bodyDef);
+                center.set((chunk.originX + tx + runW / 2f) * tileSize, (chunk.originY + ty + runH / 2f) * tileSize);
+                box.setAsBox(runW * tileSize / 2f, runH * tileSize / 2f, center, 0f);
+                body.createFixture(box, 0f);
+            }
+        }
+        if (body != null) occluders.put(chunk.key, body);
+    }
+
+    private boolean isWallRun(TileGrid tiles, int tx, int ty, int runW) {
+        int w = tiles.getWidth();
+        for (int x = tx; x < tx + runW; x++) {
+            if (merged[ty * w + x] || !tiles.isWall(x, ty)) return false;
+        }
+        return true;
+    }
+
+    public void chunkEvicted(Chunk chunk) {
+        Body body = occluders.remove(chunk.key);
+        if (body != null) world.destroyBody(body);
+    }
+
+    /** Drops every occluder, e.g. when a new level starts. */
+    public void clear() {
+        for (Body body : occluders.values()) world.destroyBody(body);
+        occluders.clear();
+    }
+
+    /**
+     * Renders the lightmap over what has been drawn so far. {@code radius} is
+     * where the flashlight fades out completely.
+     */
+    public void render(OrthographicCamera camera, float lightX, float lightY, float radius,
+                       Array<Entity> visibleGenerators) {
+        flashlight.setPosition(lightX, lightY);
+        flashlight.setDistance(radius);
+
+        int glowCount = 0;
+        if (settings.generatorGlow) {
+            for (int i = 0; i < visibleGenerators.size; i++) {
+                Entity g = visibleGenerators.get(i);
+                if (!Mappers.generator.get(g).completed) continue;
+                TransformComponent t = Mappers.transform.get(g);
+                PointLight glow = glowCount < glows.size ? glows.get(glowCount) : newGlow();
+                glow.setPosition(t.getCenterX(), t.getCenterY());
+                glow.setActive(true);
+                glowCount++;
+            }
+        }
+        for (int i = glowCount; i < glows.size; i++) glows.get(i).setActive(false);
+
+        rayHandler.setCombinedMatrix(camera);
+        rayHandler.updateAndRender();
+    }
+
+    private PointLight newGlow() {
+        PointLight glow = new PointLight(rayHandler, Math.max(8, settings.rays / GLOW_RAYS_DIVISOR), GLOW_COLOR,
+            tileSize * 2f, 0f, 0f);
+        glow.setSoftnessLength(tileSize / 4f);
+        glows.add(glow);
+        return glow;
+    }
+
+    public void dispose() {
+        rayHandler.dispose();
+        box.dispose();
+        world.dispose();
+    }
+}
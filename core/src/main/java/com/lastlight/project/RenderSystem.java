@@ -0,0 +1,91 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Comparator;
+
+/**
+ * Draws the entities on camera, layer by layer, between their last two
+ * simulation positions. They are gathered from the broadphase hashes over
+ * the view, so the cost follows what is on screen, not how many traps the
+ * drones have laid; those that need sight are also skipped where the player
+ * cannot see them.
+ *
+ * The engine does not run it; Main calls {@link #render} once per frame,
+ * however many simulation steps the frame took. The entities it gathered
+ * stay in {@link #getVisible} for the passes drawn after it.
+ */
+public class RenderSystem extends EntitySystem {
+
+    private static final Comparator<Entity> BY_LAYER =
+        (a, b) -> Integer.compare(Mappers.sprite.get(a).layer, Mappers.sprite.get(b).layer);
+
+    private final SpriteBatch batch;
+    private final OrthographicCamera camera;
+    private final Broadphase broadphase;
+    private final FieldOfView fieldOfView;
+    private final float tileSize;
+    private ImmutableArray<Entity> players;
+
+    private final Array<Entity> visible = new Array<>();
+
+    public RenderSystem(SpriteBatch batch, OrthographicCamera camera, Broadphase broadphase,
+                        FieldOfView fieldOfView, float tileSize) {
+        this.batch = batch;
+        this.camera = camera;
+        this.broadphase = broadphase;
+        this.fieldOfView = fieldOfView;
+        this.tileSize = tileSize;
+        setProcessing(false);
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        players = engine.getEntitiesFor(Family.all(PlayerComponent.class, TransformComponent.class, SpriteComponent.class).get());
+    }
+
+    /** Draws into the running batch; {@code alpha} is how far the next step is. */
+    public void render(float alpha) {
+        float viewW = camera.viewportWidth * camera.zoom;
+        float viewH = camera.viewportHeight * camera.zoom;
+        float viewX = camera.position.x - viewW / 2f;
+        float viewY = camera.position.y - viewH / 2f;
+
+        // The hashes hold the latest positions; a tile of margin covers drones
+        // drawn where they were a step ago
+        visible.clear();
+        float qx = viewX - tileSize, qy = viewY - tileSize, qw = viewW + tileSize * 2f, qh = viewH + tileSize * 2f;
+        broadphase.generators.queryAabb(qx, qy, qw, qh, visible);
+        broadphase.doors.queryAabb(qx, qy, qw, qh, visible);
+        broadphase.traps.queryAabb(qx, qy, qw, qh, visible);
+        broadphase.drones.queryAabb(qx, qy, qw, qh, visible);
+        broadphase.items.queryAabb(qx, qy, qw, qh, visible);
+        for (int i = 0; i < players.size(); i++) visible.add(players.get(i));
+        visible.sort(BY_LAYER);
+
+        for (int i = 0; i < visible.size; i++) {
+            Entity entity = visible.get(i);
+            TransformComponent t = Mappers.transform.get(entity);
+            SpriteComponent sprite = Mappers.sprite.get(entity);
+
+            float x = t.previousPosition.x + (t.position.x - t.previousPosition.x) * alpha;
+            float y = t.previousPosition.y + (t.position.y - t.previousPosition.y) * alpha;
+            if (x + t.size < viewX || y + t.size < viewY || x > viewX + viewW || y > viewY + viewH) continue;
+            if (sprite.needsSight && !fieldOfView.isVisible(t.getCenterX(), t.getCenterY(), tileSize)) continue;
+
+            batch.draw(sprite.region, x, y, t.size, t.size);
+        }
+    }
+
+    /** Entities gathered by the last {@link #render}, in layer order; some may be just off screen. */
+    public Array<Entity> getVisible() {
+        return visible;
+    }
+}
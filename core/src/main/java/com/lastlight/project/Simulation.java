@@ -0,0 +1,93 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+
+/**
+ * The game's entities and the systems that step them, in this order:
+ * <ol>
+ *     <li>{@link MotionHistorySystem} keeps the previous positions for interpolation,</li>
+ *     <li>{@link PlayerSystem} moves the player and works generators and items,</li>
+ *     <li>{@link DroneSystem} steers the drones, which lay traps,</li>
+ *     <li>{@link SwarmSystem} moves the swarm mode drones on all cores,</li>
+ *     <li>{@link HazardSystem} catches the player on traps and drones,</li>
+ *     <li>{@link ObjectiveSystem} counts generators and opens the exits,</li>
+ *     <li>{@link PickupSystem} collects the items under the player,</li>
+ *     <li>{@link FlashlightSystem} widens or narrows the player's light.</li>
+ * </ol>
+ * Render systems are added by Main and drawn once per frame, not per step.
+ *
+ * Entities and components come from the engine's pools, so traps laid and
+ * items picked up during play do not allocate once the pools are warm.
+ */
+public class Simulation {
+
+    /** Game events for Main, called from inside {@link #step}. */
+    public interface Listener {
+        void generatorCompleted(Entity generator);
+
+        void doorOpened(Entity door);
+
+        void playerCaught();
+
+        void playerEscaped();
+
+        void itemPicked(ItemType type);
+    }
+
+    public static final int MOTION_HISTORY = 0;
+    public static final int PLAYER = 1;
+    public static final int DRONES = 2;
+    public static final int SWARM = 3;
+    public static final int HAZARDS = 4;
+    public static final int OBJECTIVES = 5;
+    public static final int PICKUPS = 6;
+    public static final int FLASHLIGHT = 7;
+
+    // Pools keep up to this many free entities and components of each type; the
+    // default of 100 is less than the traps a level's drones lay between resets
+    private static final int POOL_MAX = 4096;
+
+    public final PooledEngine engine = new PooledEngine(64, POOL_MAX, 64, POOL_MAX);
+    public final Broadphase broadphase = new Broadphase(engine);
+    public final EntityFactory factory;
+    public final DroneNavigation navigation;
+    public final DroneSwarm swarm;
+    public final PlayerSystem players;
+    public final ObjectiveSystem objectives;
+
+    public Simulation(TileMap map, float tileSize, TextureAtlas atlas, AudioService audio, Listener listener) {
+        factory = new EntityFactory(engine, tileSize, atlas);
+        navigation = new DroneNavigation(tileSize);
+        swarm = new DroneSwarm(map, navigation, tileSize, EntityFactory.DRONE_SIZE * tileSize,
+            Runtime.getRuntime().availableProcessors());
+        players = new PlayerSystem(PLAYER, map, broadphase, audio, tileSize);
+        objectives = new ObjectiveSystem(OBJECTIVES, broadphase, audio, listener);
+
+        engine.addSystem(new MotionHistorySystem(MOTION_HISTORY));
+        engine.addSystem(players);
+        engine.addSystem(new DroneSystem(DRONES, map, broadphase, navigation, factory, tileSize));
+        engine.addSystem(new SwarmSystem(SWARM, swarm, factory));
+        engine.addSystem(new HazardSystem(HAZARDS, broadphase, swarm, listener));
+        engine.addSystem(objectives);
+        engine.addSystem(new PickupSystem(PICKUPS, broadphase, audio, listener));
+        engine.addSystem(new FlashlightSystem(FLASHLIGHT, audio));
+    }
+
+    public void step(float delta) {
+        engine.update(delta);
+    }
+
+    /** Removes every entity, e.g. before a new level; their parts go back to the pools. */
+    public void clear() {
+        engine.removeAllEntities();
+        swarm.clear();
+        navigation.invalidate();
+    }
+
+    /** Stops the swarm's worker threads. */
+    public void dispose() {
+        swarm.dispose();
+    }
+}
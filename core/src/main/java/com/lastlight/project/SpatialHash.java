@@ -0,0 +1,196 @@
+package com.lastlight.project;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Uniform grid over world space for broadphase queries. Each object is
+ * stored with its AABB in every cell it overlaps; queries only look at the
+ * cells the query area touches, so their cost depends on how crowded the
+ * neighbourhood is, not on how many objects exist.
+ *
+ * Moving an object inside the same cell range only updates its bounds.
+ * Cell arrays are recycled, so steady-state use does not allocate.
+ */
+public class SpatialHash<T> {
+
+    private static final class Entry<T> {
+        T item;
+        float x, y, w, h;
+        int minCx, minCy, maxCx, maxCy;
+        int stamp;
+    }
+
+    private static final int BUCKET_CAPACITY = 16;
+
+    private final float cellSize;
+    private final LongMap<Array<Entry<T>>> cells = new LongMap<>();
+    private final IdentityMap<T, Entry<T>> entries = new IdentityMap<>();
+    private final Array<Array<Entry<T>>> freeCells = new Array<>();
+    private final Array<Entry<T>> freeEntries = new Array<>();
+
+    // Largest bucket so far; recycled buckets are grown to it when they are reused
+    private int bucketCapacity = BUCKET_CAPACITY;
+
+    // Objects spanning several cells are reported once per query
+    private int queryStamp = 0;
+
+    public SpatialHash(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public void insert(T item, float x, float y, float w, float h) {
+        if (entries.containsKey(item)) {
+            move(item, x, y, w, h);
+            return;
+        }
+        Entry<T> e = freeEntries.size > 0 ? freeEntries.pop() : new Entry<T>();
+        e.item = item;
+        e.stamp = queryStamp;
+        setBounds(e, x, y, w, h);
+        entries.put(item, e);
+        addToCells(e);
+    }
+
+    public void move(T item, float x, float y, float w, float h) {
+        Entry<T> e = entries.get(item);
+        if (e == null) {
+            insert(item, x, y, w, h);
+            return;
+        }
+        int minCx = cell(x), minCy = cell(y), maxCx = cell(x + w), maxCy = cell(y + h);
+        if (minCx == e.minCx && minCy == e.minCy && maxCx == e.maxCx && maxCy == e.maxCy) {
+            e.x = x;
+            e.y = y;
+            e.w = w;
+            e.h = h;
+            return;
+        }
+        removeFromCells(e);
+        setBounds(e, x, y, w, h);
+        addToCells(e);
+    }
+
+    public void remove(T item) {
+        Entry<T> e = entries.remove(item);
+        if (e == null) return;
+        removeFromCells(e);
+        e.item = null;
+        freeEntries.add(e);
+    }
+
+    public void clear() {
+        for (Array<Entry<T>> bucket : cells.values()) {
+            bucket.clear();
+            freeCells.add(bucket);
+        }
+        cells.clear();
+        for (Entry<T> e : entries.values()) {
+            e.item = null;
+            freeEntries.add(e);
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size;
+    }
+
+    /** Adds every object whose AABB overlaps the rectangle to {@code out}. */
+    public Array<T> queryAabb(float x, float y, float w, float h, Array<T> out) {
+        int stamp = ++queryStamp;
+        for (int cy = cell(y); cy <= cell(y + h); cy++) {
+            for (int cx = cell(x); cx <= cell(x + w); cx++) {
+                Array<Entry<T>> bucket = cells.get(key(cx, cy));
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size; i++) {
+                    Entry<T> e = bucket.get(i);
+                    if (e.stamp == stamp) continue;
+                    e.stamp = stamp;
+                    if (e.x < x + w && e.x + e.w > x && e.y < y + h && e.y + e.h > y) out.add(e.item);
+                }
+            }
+        }
+        return out;
+    }
+
+    /** Adds every object whose AABB touches the circle to {@code out}. */
+    public Array<T> queryRadius(float cx, float cy, float radius, Array<T> out) {
+        int stamp = ++queryStamp;
+        float r2 = radius * radius;
+        for (int gy = cell(cy - radius); gy <= cell(cy + radius); gy++) {
+            for (int gx = cell(cx - radius); gx <= cell(cx + radius); gx++) {
+                Array<Entry<T>> bucket = cells.get(key(gx, gy));
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size; i++) {
+                    Entry<T> e = bucket.get(i);
+                    if (e.stamp == stamp) continue;
+                    e.stamp = stamp;
+                    // Closest point of the box to the centre
+                    float dx = cx - Math.max(e.x, Math.min(cx, e.x + e.w));
+                    float dy = cy - Math.max(e.y, Math.min(cy, e.y + e.h));
+                    if (dx * dx + dy * dy <= r2) out.add(e.item);
+                }
+            }
+        }
+        return out;
+    }
+
+    private void setBounds(Entry<T> e, float x, float y, float w, float h) {
+        e.x = x;
+        e.y = y;
+        e.w = w;
+        e.h = h;
+        e.minCx = cell(x);
+        e.minCy = cell(y);
+        e.maxCx = cell(x + w);
+        e.maxCy = cell(y + h);
+    }
+
+    private void addToCells(Entry<T> e) {
+        for (int cy = e.minCy; cy <= e.maxCy; cy++) {
+            for (int cx = e.minCx; cx <= e.maxCx; cx++) {
+                long key = key(cx, cy);
+                Array<Entry<T>> bucket = cells.get(key);
+                if (bucket == null) {
+                    // Recycled buckets go to any cell. Sizing them all for the most crowded
+                    // cell seen means a bucket only ever grows once, not each time it is reused
+                    bucket = freeCells.size > 0 ? freeCells.pop() : new Array<Entry<T>>(false, bucketCapacity);
+                    if (capacity(bucket) < bucketCapacity) bucket.ensureCapacity(bucketCapacity);
+                    cells.put(key, bucket);
+                }
+                bucket.add(e);
+                bucketCapacity = Math.max(bucketCapacity, capacity(bucket));
+            }
+        }
+    }
+
+    private void removeFromCells(Entry<T> e) {
+        for (int cy = e.minCy; cy <= e.maxCy; cy++) {
+            for (int cx = e.minCx; cx <= e.maxCx; cx++) {
+                long key = key(cx, cy);
+                Array<Entry<T>> bucket = cells.get(key);
+                if (bucket == null) continue;
+                bucket.removeValue(e, true);
+                if (bucket.size == 0) {
+                    cells.remove(key);
+                    freeCells.add(bucket);
+                }
+            }
+        }
+    }
+
+    // Through a wildcard: the backing array is an Object[], not an Entry[]
+    private static int capacity(Array<?> bucket) {
+        return bucket.items.length;
+    }
+
+    private int cell(float v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
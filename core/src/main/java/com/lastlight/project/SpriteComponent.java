@@ -0,0 +1,35 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Pool;
+
+/** What RenderSystem draws for an entity. Higher layers are drawn on top. */
+public class SpriteComponent implements Component, Pool.Poolable {
+
+    public static final int LAYER_GENERATOR = 0;
+    public static final int LAYER_DOOR = 1;
+    public static final int LAYER_TRAP = 2;
+    public static final int LAYER_DRONE = 3;
+    public static final int LAYER_ITEM = 4;
+    public static final int LAYER_PLAYER = 5;
+
+    public TextureRegion region;
+    public int layer;
+    // Only drawn on tiles the player can see; the facility's fixtures are always drawn
+    public boolean needsSight;
+
+    public SpriteComponent set(TextureRegion region, int layer, boolean needsSight) {
+        this.region = region;
+        this.layer = layer;
+        this.needsSight = needsSight;
+        return this;
+    }
+
+    @Override
+    public void reset() {
+        region = null;
+        layer = 0;
+        needsSight = false;
+    }
+}
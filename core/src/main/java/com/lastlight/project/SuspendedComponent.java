@@ -0,0 +1,11 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+
+/**
+ * Marks the entities of an evicted chunk. They stay in the engine with all
+ * their state, but every family excludes them, so no system sees them
+ * until the chunk is loaded again. See ChunkEntities.
+ */
+public class SuspendedComponent implements Component {
+}
@@ -0,0 +1,50 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Draws the swarm mode drones between their last two positions, where the
+ * player can see them. Like RenderSystem, it is drawn by Main once per frame.
+ */
+public class SwarmRenderSystem extends EntitySystem {
+
+    private final DroneSwarm swarm;
+    private final SpriteBatch batch;
+    private final OrthographicCamera camera;
+    private final FieldOfView fieldOfView;
+    private final TextureRegion region;
+    private final float tileSize;
+
+    public SwarmRenderSystem(DroneSwarm swarm, SpriteBatch batch, OrthographicCamera camera,
+                             FieldOfView fieldOfView, TextureRegion region, float tileSize) {
+        this.swarm = swarm;
+        this.batch = batch;
+        this.camera = camera;
+        this.fieldOfView = fieldOfView;
+        this.region = region;
+        this.tileSize = tileSize;
+        setProcessing(false);
+    }
+
+    /** Draws into the running batch; {@code alpha} is how far the next step is. */
+    public void render(float alpha) {
+        float viewW = camera.viewportWidth * camera.zoom;
+        float viewH = camera.viewportHeight * camera.zoom;
+        float viewX = camera.position.x - viewW / 2f;
+        float viewY = camera.position.y - viewH / 2f;
+        float size = swarm.getSize();
+        float[] x = swarm.x, y = swarm.y, previousX = swarm.previousX, previousY = swarm.previousY;
+
+        for (int i = 0, n = swarm.getCount(); i < n; i++) {
+            float dx = previousX[i] + (x[i] - previousX[i]) * alpha;
+            float dy = previousY[i] + (y[i] - previousY[i]) * alpha;
+            if (dx + size < viewX || dy + size < viewY || dx > viewX + viewW || dy > viewY + viewH) continue;
+            if (!fieldOfView.isVisible(x[i] + size / 2f, y[i] + size / 2f, tileSize)) continue;
+
+            batch.draw(region, dx, dy, size, size);
+        }
+    }
+}
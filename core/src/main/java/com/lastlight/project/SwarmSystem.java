@@ -0,0 +1,42 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+/**
+ * Steps the swarm mode drones, then lays the traps they were due. Runs after
+ * DroneSystem, which brings the navigation fields up to date for both, and
+ * hands the swarm the player's box, which HazardSystem reads the result of.
+ */
+public class SwarmSystem extends EntitySystem {
+
+    private final DroneSwarm swarm;
+    private final EntityFactory factory;
+    private ImmutableArray<Entity> players;
+
+    public SwarmSystem(int priority, DroneSwarm swarm, EntityFactory factory) {
+        super(priority);
+        this.swarm = swarm;
+        this.factory = factory;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        players = engine.getEntitiesFor(Family.all(PlayerComponent.class, TransformComponent.class).get());
+    }
+
+    @Override
+    public void update(float delta) {
+        if (players.size() > 0) {
+            TransformComponent t = Mappers.transform.get(players.first());
+            swarm.setPlayer(t.position.x, t.position.y, t.size, t.size);
+        } else {
+            swarm.clearPlayer();
+        }
+        swarm.step(delta);
+        swarm.layTraps(factory);
+    }
+}
@@ -0,0 +1,124 @@
+package com.lastlight.project;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Flat tile map in world orientation: row 0 is the bottom row, so (tx, ty)
+ * maps straight onto world space as (tx * tileSize, ty * tileSize).
+ *
+ * Two byte planes are kept side by side: the tile plane (walls / floor)
+ * used by collision and rendering, and the marker plane (player, drones,
+ * traps, ...) used when spawning entities.
+ */
+public class TileGrid implements TileMap {
+
+    // ======================
+    // TILE PLANE
+    // ======================
+    public static final byte FLOOR = 0;
+    public static final byte WALL = 1;
+    // Flag baked over floor tiles holding a generator or closed door
+    public static final byte OBSTACLE = 2;
+
+    // ======================
+    // MARKER PLANE
+    // ======================
+    public static final byte NONE = 0;
+    public static final byte PLAYER = 1;
+    public static final byte DRONE = 2;
+    public static final byte TRAP = 3;
+    public static final byte GENERATOR = 4;
+    public static final byte ITEM = 5;
+    public static final byte EXIT = 6;
+
+    private final int width;
+    private final int height;
+    private final byte[] tiles;
+    private final byte[] markers;
+    private long seed;
+
+    public TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tiles = new byte[width * height];
+        this.markers = new byte[width * height];
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /** Seed the map was generated from, also used for anything rolled at spawn time. */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public boolean inBounds(int tx, int ty) {
+        return tx >= 0 && tx < width && ty >= 0 && ty < height;
+    }
+
+    /** Anything outside the grid counts as solid so entities can never leave it. */
+    @Override
+    public boolean isSolid(int tx, int ty) {
+        if (tx < 0 || tx >= width || ty < 0 || ty >= height) return true;
+        return tiles[ty * width + tx] != FLOOR;
+    }
+
+    @Override
+    public boolean isOpaque(int tx, int ty) {
+        if (tx < 0 || tx >= width || ty < 0 || ty >= height) return true;
+        return (tiles[ty * width + tx] & WALL) != 0;
+    }
+
+    public boolean isWall(int tx, int ty) {
+        return (tiles[ty * width + tx] & WALL) != 0;
+    }
+
+    public void setObstacle(int tx, int ty, boolean obstacle) {
+        int i = ty * width + tx;
+        tiles[i] = (byte) (obstacle ? tiles[i] | OBSTACLE : tiles[i] & ~OBSTACLE);
+    }
+
+    /** Plain floor with nothing placed on it yet. */
+    public boolean isFree(int tx, int ty) {
+        int i = ty * width + tx;
+        return tiles[i] == FLOOR && markers[i] == NONE;
+    }
+
+    public byte getTile(int tx, int ty) {
+        return tiles[ty * width + tx];
+    }
+
+    public void setTile(int tx, int ty, byte tile) {
+        tiles[ty * width + tx] = tile;
+    }
+
+    public byte getMarker(int tx, int ty) {
+        return markers[ty * width + tx];
+    }
+
+    public void setMarker(int tx, int ty, byte marker) {
+        markers[ty * width + tx] = marker;
+    }
+
+    /** Bulk-reads {@code count} tiles of row ty from the buffer's current position. */
+    public void readTileRow(int ty, ByteBuffer src, int count) {
+        src.get(tiles, ty * width, count);
+    }
+
+    public void fill(byte tile) {
+        Arrays.fill(tiles, tile);
+        Arrays.fill(markers, NONE);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lastlight.project;
+
+/**
+ * Read-only tile queries shared by the flat TileGrid and the streamed
+ * ChunkedWorld. Coordinates are in tiles, world orientation.
+ */
+public interface TileMap {
+
+    int getWidth();
+
+    int getHeight();
+
+    /** True for walls, and for anything outside the map or not loaded. */
+    boolean isSolid(int tx, int ty);
+
+    /** True where sight is blocked: walls, and anything outside the map or not loaded. Obstacles do not block sight. */
+    boolean isOpaque(int tx, int ty);
+}
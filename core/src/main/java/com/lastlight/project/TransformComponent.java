@@ -0,0 +1,37 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool;
+
+/** Where an entity is: the bottom-left corner of its square, and the square's side. */
+public class TransformComponent implements Component, Pool.Poolable {
+
+    public final Vector2 position = new Vector2();
+    // Position at the start of the last simulation step, for render interpolation
+    public final Vector2 previousPosition = new Vector2();
+    public float size;
+
+    /** Places the entity without a move to interpolate from. */
+    public TransformComponent set(float x, float y, float size) {
+        position.set(x, y);
+        previousPosition.set(x, y);
+        this.size = size;
+        return this;
+    }
+
+    public float getCenterX() {
+        return position.x + size / 2f;
+    }
+
+    public float getCenterY() {
+        return position.y + size / 2f;
+    }
+
+    @Override
+    public void reset() {
+        position.setZero();
+        previousPosition.setZero();
+        size = 0f;
+    }
+}
@@ -0,0 +1,7 @@
+package com.lastlight.project;
+
+import com.badlogic.ashley.core.Component;
+
+/** Marks a trap. Traps are laid by drones during play, so they come from the engine's pools. */
+public class TrapComponent implements Component {
+}
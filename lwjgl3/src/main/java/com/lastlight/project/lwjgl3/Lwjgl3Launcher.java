@@ -2,23 +2,71 @@ package com.lastlight.project.lwjgl3;
 
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.lastlight.project.LightSettings;
 import com.lastlight.project.Main;
 
+import java.util.Locale;
+
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        createApplication(args);
         Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
         config.setTitle("Sandbox Escape");
         config.setWindowedMode(800, 480);
         config.setResizable(false);
 
-        new Lwjgl3Application(new Main(), config);
+        new Lwjgl3Application(new Main(facilityChunks(args), levelPath(args), lightSettings(args), swarmDrones(args)), config);
+    }
+
+    private static Lwjgl3Application createApplication(String[] args) {
+        return new Lwjgl3Application(new Main(facilityChunks(args), levelPath(args), lightSettings(args), swarmDrones(args)), getDefaultConfiguration());
+    }
+
+    /** {@code --facility=N} streams an N x N chunk facility instead of the classic map. */
+    private static int facilityChunks(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--facility=")) return Integer.parseInt(arg.substring("--facility=".length()));
+        }
+        return 0;
+    }
+
+    /** {@code --level=path} plays a level saved with LevelFile. */
+    private static String levelPath(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--level=")) return arg.substring("--level=".length());
+        }
+        return null;
+    }
+
+    /** {@code --swarm=N} turns every drone into N lighter swarm drones, moved on all cores. */
+    private static int swarmDrones(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--swarm=")) return Integer.parseInt(arg.substring("--swarm=".length()));
+        }
+        return 0;
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Main(), getDefaultConfiguration());
+    /**
+     * {@code --lighting=rays} turns on shadow casting and {@code --lighting=lightmap} the
+     * multi-light buffer; {@code --rays=N} and {@code --lightmap-divisor=N} tune their cost,
+     * {@code --no-glow} turns off generator lights.
+     */
+    private static LightSettings lightSettings(String[] args) {
+        LightSettings settings = new LightSettings();
+        for (String arg : args) {
+            if (arg.startsWith("--lighting=")) {
+                settings.mode = LightSettings.Mode.valueOf(arg.substring("--lighting=".length()).toUpperCase(Locale.ROOT));
+            } else if (arg.startsWith("--rays=")) {
+                settings.rays = Integer.parseInt(arg.substring("--rays=".length()));
+            } else if (arg.startsWith("--lightmap-divisor=")) {
+                settings.lightmapDivisor = Integer.parseInt(arg.substring("--lightmap-divisor=".length()));
+            } else if (arg.equals("--no-glow")) {
+                settings.generatorGlow = false;
+            }
+        }
+        return settings;
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {